@@ -3,6 +3,8 @@ package no.chickendirect.address;
 import lombok.RequiredArgsConstructor;
 import no.chickendirect.address.dto.AddressRequest;
 import no.chickendirect.address.dto.AddressResponse;
+import no.chickendirect.cache.CacheTopic;
+import no.chickendirect.cache.InvalidationBus;
 import no.chickendirect.customer.Customer;
 import no.chickendirect.exception.AddressNotFoundException;
 
@@ -17,6 +19,7 @@ import java.util.List;
 public class AddressService {
 
     private final AddressRepository addressRepository;
+    private final InvalidationBus invalidationBus;
 
     public AddressResponse addAddressToCustomer(Customer customer, AddressRequest request) {
         Address address = Address.builder()
@@ -49,6 +52,7 @@ public class AddressService {
         address.setCountry(request.country());
 
         Address saved = addressRepository.save(address);
+        invalidationBus.publish(CacheTopic.ADDRESS, addressId);
         return toAddressResponse(saved);
     }
 
@@ -56,6 +60,7 @@ public class AddressService {
         Address address = getAddressEntity(addressId);
         verifyAddressBelongsToCustomer(address, customerId);
         addressRepository.delete(address);
+        invalidationBus.publish(CacheTopic.ADDRESS, addressId);
     }
 
     public Address getAddressEntity(Long addressId) {
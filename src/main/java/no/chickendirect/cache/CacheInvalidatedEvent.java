@@ -0,0 +1,7 @@
+package no.chickendirect.cache;
+
+// A null id means every entry of the topic may be stale
+public record CacheInvalidatedEvent(
+        CacheTopic topic,
+        Long id
+) {}
@@ -0,0 +1,14 @@
+package no.chickendirect.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "cache.invalidation")
+public record CacheInvalidationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("cache_invalidation") String channel,
+        @DefaultValue("500ms") Duration pollTimeout,
+        @DefaultValue("5s") Duration reconnectDelay
+) {}
@@ -0,0 +1,7 @@
+package no.chickendirect.cache;
+
+public enum CacheTopic {
+    PRODUCT,
+    CUSTOMER,
+    ADDRESS
+}
@@ -0,0 +1,133 @@
+package no.chickendirect.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.JdbcConnectionDetails;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+@Component
+@EnableConfigurationProperties(CacheInvalidationProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class InvalidationBus {
+
+    private static final String NOTIFY = "SELECT pg_notify(:channel, :payload)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcConnectionDetails connectionDetails;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheInvalidationProperties properties;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private Thread listener;
+
+    // Postgres queues the notification until the surrounding transaction commits and drops it on rollback
+    @Transactional
+    public void publish(CacheTopic topic, Long id) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("channel", properties.channel())
+                .addValue("payload", nodeId + ":" + topic + ":" + id);
+        jdbcTemplate.queryForList(NOTIFY, params);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (properties.enabled() && !running) {
+            running = true;
+            listener = Thread.ofPlatform()
+                    .name("cache-invalidation-listener")
+                    .daemon()
+                    .start(this::listen);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener.join();
+            listener = null;
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            // Held outside the pool: LISTEN is session state and the connection never goes idle
+            try (Connection connection = DriverManager.getConnection(
+                    connectionDetails.getJdbcUrl(), connectionDetails.getUsername(), connectionDetails.getPassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.channel());
+                }
+                if (reconnecting) {
+                    // Notifications sent while we were disconnected are gone
+                    for (CacheTopic topic : CacheTopic.values()) {
+                        dispatch(new CacheInvalidatedEvent(topic, null));
+                    }
+                }
+                log.info("Listening for cache invalidations on channel {}", properties.channel());
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications =
+                            pgConnection.getNotifications((int) properties.pollTimeout().toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener lost its connection, retrying in {}",
+                            properties.reconnectDelay(), e);
+                    reconnecting = true;
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split(":", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        Long id = parts[2].equals("null") ? null : Long.valueOf(parts[2]);
+        dispatch(new CacheInvalidatedEvent(CacheTopic.valueOf(parts[1]), id));
+    }
+
+    private void dispatch(CacheInvalidatedEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply cache invalidation {}", event, e);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.reconnectDelay());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
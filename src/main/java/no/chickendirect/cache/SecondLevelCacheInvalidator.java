@@ -0,0 +1,40 @@
+package no.chickendirect.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import no.chickendirect.address.Address;
+import no.chickendirect.customer.Customer;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidator {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @EventListener
+    public void onInvalidation(CacheInvalidatedEvent event) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        switch (event.topic()) {
+            case CUSTOMER -> {
+                evict(cache, Customer.class, event.id());
+                // The old email may still resolve to this id
+                cache.evictNaturalIdData(Customer.class);
+            }
+            case ADDRESS -> evict(cache, Address.class, event.id());
+            default -> {
+            }
+        }
+    }
+
+    private void evict(Cache cache, Class<?> entityClass, Long id) {
+        if (id == null) {
+            cache.evictEntityData(entityClass);
+        } else {
+            cache.evictEntityData(entityClass, id);
+        }
+    }
+}
@@ -10,6 +10,8 @@ import no.chickendirect.order.OrderRepository;
 import no.chickendirect.orderitem.OrderItem;
 import no.chickendirect.product.Product;
 import no.chickendirect.product.ProductRepository;
+import no.chickendirect.product.StockLedgerRepository;
+import no.chickendirect.product.StockMovementType;
 import no.chickendirect.productstatus.ProductStatus;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
@@ -26,6 +28,7 @@ public class FakeDataSeeder implements CommandLineRunner {
     private final AddressRepository addressRepository;
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
+    private final StockLedgerRepository stockLedgerRepository;
 
     private final Faker faker = new Faker(Locale.forLanguageTag("nb-NO"));
     private final Random random = new Random();
@@ -38,11 +41,13 @@ public class FakeDataSeeder implements CommandLineRunner {
     public FakeDataSeeder(CustomerRepository customerRepository,
                           AddressRepository addressRepository,
                           ProductRepository productRepository,
-                          OrderRepository orderRepository) {
+                          OrderRepository orderRepository,
+                          StockLedgerRepository stockLedgerRepository) {
         this.customerRepository = customerRepository;
         this.addressRepository = addressRepository;
         this.productRepository = productRepository;
         this.orderRepository = orderRepository;
+        this.stockLedgerRepository = stockLedgerRepository;
     }
 
     @Override
@@ -143,7 +148,7 @@ public class FakeDataSeeder implements CommandLineRunner {
             p.setPrice(chickenPrices.get(name));
 
             int initialQuantity = chickenQuantities.getOrDefault(name, 0);
-            p.setQuantityOnHand(initialQuantity);
+            p.setStockSnapshotQuantity(initialQuantity);
 
             if (initialQuantity > 0) {
                 p.setStatus(ProductStatus.IN_STOCK);
@@ -210,6 +215,8 @@ public class FakeDataSeeder implements CommandLineRunner {
 
                 OrderItem item = new OrderItem();
                 item.setProduct(p);
+                item.setProductName(p.getName());
+                item.setUnitPrice(p.getPrice());
                 item.setQuantity(qty);
 
                 order.addOrderItem(item);
@@ -218,6 +225,7 @@ public class FakeDataSeeder implements CommandLineRunner {
                 itemsTotal = itemsTotal.add(p.getPrice().multiply(BigDecimal.valueOf(qty)));
 
                 p.setQuantityOnHand(p.getQuantityOnHand() - qty);
+                stockLedgerRepository.append(p.getId(), StockMovementType.RESERVATION, -qty);
 
                 if (p.getQuantityOnHand() == 0) {
                     p.setStatus(ProductStatus.OUT_OF_STOCK);
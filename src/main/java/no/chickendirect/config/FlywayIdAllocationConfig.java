@@ -0,0 +1,23 @@
+package no.chickendirect.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.flyway.autoconfigure.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IdAllocationProperties.class)
+public class FlywayIdAllocationConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer idAllocationPlaceholder(IdAllocationProperties properties) {
+        return configuration -> {
+            Map<String, String> placeholders = new HashMap<>(configuration.getPlaceholders());
+            placeholders.put("id_allocation_size", String.valueOf(properties.allocationSize()));
+            configuration.placeholders(placeholders);
+        };
+    }
+}
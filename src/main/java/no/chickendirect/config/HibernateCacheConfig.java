@@ -0,0 +1,26 @@
+package no.chickendirect.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+
+@Configuration
+public class HibernateCacheConfig {
+
+    // JCache hands out one manager per URI for the whole JVM; each application context gets its own instead
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return new CaffeineCachingProvider().getCacheManager(
+                URI.create("classpath:hibernate-cache.conf"), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,12 @@
+package no.chickendirect.config;
+
+// Ids Hibernate reserves per sequence call until it has read the sequences. The size in effect is ids.allocation-size:
+// FlywayIdAllocationConfig hands it to R__id_allocation_size.sql as the sequences' INCREMENT BY, and with
+// increment_size_mismatch_strategy=FIX every pooled @SequenceGenerator takes its size from the sequence.
+public final class IdAllocation {
+
+    public static final int SIZE = 50;
+
+    private IdAllocation() {
+    }
+}
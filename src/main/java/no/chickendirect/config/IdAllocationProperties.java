@@ -0,0 +1,9 @@
+package no.chickendirect.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "ids")
+public record IdAllocationProperties(
+        @DefaultValue("50") int allocationSize
+) {}
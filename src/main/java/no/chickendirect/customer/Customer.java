@@ -8,7 +8,12 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import no.chickendirect.address.Address;
+import no.chickendirect.config.IdAllocation;
 import no.chickendirect.order.Order;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,10 +24,13 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "customer")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customer")
+@NaturalIdCache(region = "customer-email")
 public class Customer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_id_seq")
+    @SequenceGenerator(name = "customer_id_seq", sequenceName = "customer_id_seq", allocationSize = IdAllocation.SIZE)
     private Long id;
 
     @NotBlank
@@ -33,6 +41,7 @@ public class Customer {
 
     @NotBlank
     @Email
+    @NaturalId(mutable = true)
     @Column(unique = true)
     private String email;
 
@@ -0,0 +1,8 @@
+package no.chickendirect.customer;
+
+import java.util.Optional;
+
+public interface CustomerNaturalIdRepository {
+
+    Optional<Customer> findByEmail(String email);
+}
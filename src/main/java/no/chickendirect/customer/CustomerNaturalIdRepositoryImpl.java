@@ -0,0 +1,23 @@
+package no.chickendirect.customer;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class CustomerNaturalIdRepositoryImpl implements CustomerNaturalIdRepository {
+
+    private final EntityManager entityManager;
+
+    // Resolves email -> id through the natural-id cache, then the entity through the customer region
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Customer> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Customer.class)
+                .loadOptional(email);
+    }
+}
@@ -2,11 +2,7 @@ package no.chickendirect.customer;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.Optional;
-
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerNaturalIdRepository {
 
     boolean existsByEmail(String email);
-
-    Optional<Customer> findByEmail(String email);
 }
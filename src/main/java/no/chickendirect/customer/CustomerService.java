@@ -6,6 +6,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import no.chickendirect.address.Address;
 import no.chickendirect.address.dto.AddressResponse;
+import no.chickendirect.cache.CacheTopic;
+import no.chickendirect.cache.InvalidationBus;
 import no.chickendirect.customer.dto.CustomerRequest;
 import no.chickendirect.customer.dto.CustomerResponse;
 import no.chickendirect.order.Order;
@@ -24,6 +26,7 @@ import java.util.List;
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final InvalidationBus invalidationBus;
 
     public Customer getCustomerEntity(Long id) {
         return customerRepository.findById(id)
@@ -68,6 +71,7 @@ public class CustomerService {
         customer.setEmail(request.email());
 
         Customer updated = customerRepository.save(customer);
+        invalidationBus.publish(CacheTopic.CUSTOMER, id);
 
         return toCustomerResponse(updated);
     }
@@ -78,6 +82,9 @@ public class CustomerService {
             throw new CustomerNotFoundException(id);
         }
         customerRepository.deleteById(id);
+        invalidationBus.publish(CacheTopic.CUSTOMER, id);
+        // Addresses go with the customer; ids are not at hand, so other nodes drop the whole region
+        invalidationBus.publish(CacheTopic.ADDRESS, null);
     }
 
     private CustomerResponse toCustomerResponse(Customer customer) {
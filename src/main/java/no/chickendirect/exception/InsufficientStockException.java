@@ -0,0 +1,11 @@
+package no.chickendirect.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(Long productId, int quantity) {
+        super("Product with id=" + productId + " does not have " + quantity + " in stock");
+    }
+}
@@ -0,0 +1,41 @@
+package no.chickendirect.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    public RowWriter open(OutputStream out, List<String> columns) {
+        return switch (this) {
+            case CSV -> new CsvRowWriter(out, columns);
+            case NDJSON -> new NdjsonRowWriter(out, columns);
+        };
+    }
+
+    public RowReader openReader(InputStream in) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvRowReader(in);
+            case NDJSON -> new NdjsonRowReader(in);
+        };
+    }
+}
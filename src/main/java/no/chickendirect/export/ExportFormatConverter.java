@@ -0,0 +1,15 @@
+package no.chickendirect.export;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+@Component
+public class ExportFormatConverter implements Converter<String, ExportFormat> {
+
+    @Override
+    public ExportFormat convert(String source) {
+        return ExportFormat.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,9 @@
+package no.chickendirect.export;
+
+// A single unreadable row; the reader stays positioned at the next row so callers can carry on
+public class RowFormatException extends RuntimeException {
+
+    public RowFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package no.chickendirect.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+public interface RowReader extends Closeable {
+
+    // Next row keyed by column name, or null once the input is exhausted
+    Map<String, String> readRow() throws IOException;
+
+    // 1-based position of the row last returned, header excluded
+    long rowNumber();
+}
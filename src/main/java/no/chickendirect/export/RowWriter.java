@@ -0,0 +1,8 @@
+package no.chickendirect.export;
+
+import java.io.Flushable;
+
+public interface RowWriter extends Flushable {
+
+    void writeRow(Object... values);
+}
@@ -0,0 +1,47 @@
+package no.chickendirect.fulfilment;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import no.chickendirect.export.ExportFormat;
+import no.chickendirect.fulfilment.dto.FulfilmentClaimRequest;
+import no.chickendirect.fulfilment.dto.FulfilmentClaimResponse;
+import no.chickendirect.fulfilment.dto.FulfilmentCompletionRequest;
+import no.chickendirect.fulfilment.dto.FulfilmentCompletionResponse;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("api/fulfilment")
+@RequiredArgsConstructor
+public class FulfilmentController {
+
+    private final FulfilmentService fulfilmentService;
+
+    @PostMapping("claims")
+    public FulfilmentClaimResponse claimOrders(@Valid @RequestBody FulfilmentClaimRequest request) {
+        return fulfilmentService.claimOrders(request);
+    }
+
+    @GetMapping("pick-list")
+    public void getPickList(
+            @RequestParam(defaultValue = "csv") ExportFormat format,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(format.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        fulfilmentService.writePickList(format, response.getOutputStream());
+    }
+
+    @PostMapping("claims/complete")
+    public FulfilmentCompletionResponse completeOrders(@Valid @RequestBody FulfilmentCompletionRequest request) {
+        return fulfilmentService.completeOrders(request);
+    }
+
+    @PostMapping("claims/release")
+    public FulfilmentCompletionResponse releaseOrders(@Valid @RequestBody FulfilmentCompletionRequest request) {
+        return fulfilmentService.releaseOrders(request);
+    }
+}
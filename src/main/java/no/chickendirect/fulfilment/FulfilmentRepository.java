@@ -0,0 +1,125 @@
+package no.chickendirect.fulfilment;
+
+import lombok.RequiredArgsConstructor;
+import no.chickendirect.fulfilment.dto.ClaimedOrderResponse;
+import no.chickendirect.fulfilment.dto.PickListLine;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class FulfilmentRepository {
+
+    // SKIP LOCKED lets concurrent workers pass over rows another worker is claiming right now,
+    // and an expired lease makes an order claimable again without any cleanup job.
+    private static final String CLAIM_BATCH = """
+            WITH candidates AS (
+                SELECT id
+                FROM orders
+                WHERE is_shipped = FALSE
+                  AND (claim_expires_at IS NULL OR claim_expires_at < now())
+                ORDER BY creation_date, id
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE orders o
+            SET claimed_by = :workerId,
+                claim_expires_at = now() + make_interval(secs => :leaseSeconds)
+            FROM candidates c
+            WHERE o.id = c.id
+            RETURNING o.id, o.creation_date, o.shipping_city, o.shipping_postal_code, o.claim_expires_at
+            """;
+
+    private static final String COMPLETE_CLAIMED = """
+            UPDATE orders
+            SET is_shipped = TRUE,
+                version = version + 1,
+                claimed_by = NULL,
+                claim_expires_at = NULL
+            WHERE id = ANY(CAST(:ids AS BIGINT[]))
+              AND claimed_by = :workerId
+              AND claim_expires_at >= now()
+              AND is_shipped = FALSE
+            RETURNING id
+            """;
+
+    private static final String RELEASE_CLAIMED = """
+            UPDATE orders
+            SET claimed_by = NULL,
+                claim_expires_at = NULL
+            WHERE id = ANY(CAST(:ids AS BIGINT[]))
+              AND claimed_by = :workerId
+            RETURNING id
+            """;
+
+    private static final String PICK_LIST = """
+            SELECT o.shipping_city,
+                   o.shipping_postal_code,
+                   oi.product_id,
+                   p.name AS product_name,
+                   SUM(oi.quantity) AS total_quantity
+            FROM orders o
+            JOIN order_item oi ON oi.order_id = o.id
+            JOIN product p ON p.id = oi.product_id
+            WHERE o.is_shipped = FALSE
+            GROUP BY o.shipping_city, o.shipping_postal_code, oi.product_id, p.name
+            ORDER BY o.shipping_city, o.shipping_postal_code, p.name
+            """;
+
+    private static final int PICK_LIST_FETCH_SIZE = 1_000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<ClaimedOrderResponse> claimBatch(String workerId, int batchSize, int leaseSeconds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("workerId", workerId)
+                .addValue("batchSize", batchSize)
+                .addValue("leaseSeconds", leaseSeconds);
+
+        return jdbcTemplate.query(CLAIM_BATCH, params, (rs, rowNum) -> new ClaimedOrderResponse(
+                rs.getLong("id"),
+                rs.getTimestamp("creation_date").toLocalDateTime(),
+                rs.getString("shipping_city"),
+                rs.getString("shipping_postal_code"),
+                rs.getObject("claim_expires_at", OffsetDateTime.class)
+        ));
+    }
+
+    public List<Long> completeClaimed(String workerId, Collection<Long> orderIds) {
+        return jdbcTemplate.queryForList(COMPLETE_CLAIMED, claimParams(workerId, orderIds), Long.class);
+    }
+
+    public List<Long> releaseClaimed(String workerId, Collection<Long> orderIds) {
+        return jdbcTemplate.queryForList(RELEASE_CLAIMED, claimParams(workerId, orderIds), Long.class);
+    }
+
+    public void forEachPickListLine(Consumer<PickListLine> consumer) {
+        jdbcTemplate.getJdbcTemplate().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    PICK_LIST, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(PICK_LIST_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(new PickListLine(
+                rs.getString("shipping_city"),
+                rs.getString("shipping_postal_code"),
+                rs.getLong("product_id"),
+                rs.getString("product_name"),
+                rs.getLong("total_quantity")
+        )));
+    }
+
+    private MapSqlParameterSource claimParams(String workerId, Collection<Long> orderIds) {
+        return new MapSqlParameterSource()
+                .addValue("workerId", workerId)
+                .addValue("ids", orderIds.toArray(Long[]::new));
+    }
+}
@@ -0,0 +1,77 @@
+package no.chickendirect.fulfilment;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.export.ExportFormat;
+import no.chickendirect.export.RowWriter;
+import no.chickendirect.fulfilment.dto.ClaimedOrderResponse;
+import no.chickendirect.fulfilment.dto.FulfilmentClaimRequest;
+import no.chickendirect.fulfilment.dto.FulfilmentClaimResponse;
+import no.chickendirect.fulfilment.dto.FulfilmentCompletionRequest;
+import no.chickendirect.fulfilment.dto.FulfilmentCompletionResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class FulfilmentService {
+
+    static final int DEFAULT_BATCH_SIZE = 20;
+    static final int DEFAULT_LEASE_SECONDS = 300;
+
+    private static final List<String> PICK_LIST_COLUMNS = List.of(
+            "shippingCity", "shippingPostalCode", "productId", "productName", "totalQuantity");
+
+    private final FulfilmentRepository fulfilmentRepository;
+
+    public FulfilmentClaimResponse claimOrders(FulfilmentClaimRequest request) {
+        int batchSize = request.batchSize() != null ? request.batchSize() : DEFAULT_BATCH_SIZE;
+        int leaseSeconds = request.leaseSeconds() != null ? request.leaseSeconds() : DEFAULT_LEASE_SECONDS;
+
+        List<ClaimedOrderResponse> claimed = fulfilmentRepository.claimBatch(request.workerId(), batchSize, leaseSeconds)
+                .stream()
+                .sorted(Comparator.comparing(ClaimedOrderResponse::creationDate)
+                        .thenComparing(ClaimedOrderResponse::orderId))
+                .toList();
+
+        log.debug("Worker {} claimed {} orders", request.workerId(), claimed.size());
+        return new FulfilmentClaimResponse(request.workerId(), claimed);
+    }
+
+    @Transactional(readOnly = true)
+    public void writePickList(ExportFormat format, OutputStream out) throws IOException {
+        RowWriter writer = format.open(out, PICK_LIST_COLUMNS);
+        fulfilmentRepository.forEachPickListLine(line -> writer.writeRow(
+                line.shippingCity(),
+                line.shippingPostalCode(),
+                line.productId(),
+                line.productName(),
+                line.totalQuantity()
+        ));
+        writer.flush();
+    }
+
+    public FulfilmentCompletionResponse completeOrders(FulfilmentCompletionRequest request) {
+        List<Long> completed = fulfilmentRepository.completeClaimed(
+                request.workerId(), new LinkedHashSet<>(request.orderIds()));
+
+        log.info("Worker {} shipped {} of {} orders", request.workerId(), completed.size(), request.orderIds().size());
+        return new FulfilmentCompletionResponse(request.workerId(), completed);
+    }
+
+    public FulfilmentCompletionResponse releaseOrders(FulfilmentCompletionRequest request) {
+        List<Long> released = fulfilmentRepository.releaseClaimed(
+                request.workerId(), new LinkedHashSet<>(request.orderIds()));
+
+        log.info("Worker {} released {} orders", request.workerId(), released.size());
+        return new FulfilmentCompletionResponse(request.workerId(), released);
+    }
+}
@@ -0,0 +1,12 @@
+package no.chickendirect.fulfilment.dto;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+public record ClaimedOrderResponse(
+        Long orderId,
+        LocalDateTime creationDate,
+        String shippingCity,
+        String shippingPostalCode,
+        OffsetDateTime claimExpiresAt
+) {}
@@ -0,0 +1,12 @@
+package no.chickendirect.fulfilment.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+public record FulfilmentClaimRequest(
+        @NotBlank @Size(max = 100) String workerId,
+        @Positive @Max(500) Integer batchSize,
+        @Positive @Max(3600) Integer leaseSeconds
+) {}
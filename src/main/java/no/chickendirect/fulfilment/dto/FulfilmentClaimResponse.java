@@ -0,0 +1,8 @@
+package no.chickendirect.fulfilment.dto;
+
+import java.util.List;
+
+public record FulfilmentClaimResponse(
+        String workerId,
+        List<ClaimedOrderResponse> orders
+) {}
@@ -0,0 +1,13 @@
+package no.chickendirect.fulfilment.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record FulfilmentCompletionRequest(
+        @NotBlank @Size(max = 100) String workerId,
+        @NotEmpty @Size(max = 500) List<@NotNull Long> orderIds
+) {}
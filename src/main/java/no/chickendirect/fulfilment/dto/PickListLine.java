@@ -0,0 +1,9 @@
+package no.chickendirect.fulfilment.dto;
+
+public record PickListLine(
+        String shippingCity,
+        String shippingPostalCode,
+        Long productId,
+        String productName,
+        Long totalQuantity
+) {}
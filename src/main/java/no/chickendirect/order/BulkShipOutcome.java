@@ -0,0 +1,7 @@
+package no.chickendirect.order;
+
+public enum BulkShipOutcome {
+    UPDATED,
+    UNCHANGED,
+    NOT_FOUND
+}
@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import no.chickendirect.config.IdAllocation;
 import no.chickendirect.customer.Customer;
 import no.chickendirect.orderitem.OrderItem;
 
@@ -27,9 +28,13 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_id_seq")
+    @SequenceGenerator(name = "orders_id_seq", sequenceName = "orders_id_seq", allocationSize = IdAllocation.SIZE)
     private Long id;
 
+    @Version
+    private Long version;
+
     @CreationTimestamp
     private LocalDateTime creationDate;
 
@@ -64,7 +69,7 @@ public class Order {
     @NotBlank
     private String customerPhone;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
@@ -0,0 +1,14 @@
+package no.chickendirect.order;
+
+import no.chickendirect.order.dto.OrderBulkShipResult;
+import no.chickendirect.order.dto.OrderSearchCriteria;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderBulkRepository {
+
+    List<OrderBulkShipResult> updateShippedStatusByIds(Collection<Long> orderIds, boolean isShipped);
+
+    List<Long> updateShippedStatusMatching(OrderSearchCriteria filter, boolean isShipped);
+}
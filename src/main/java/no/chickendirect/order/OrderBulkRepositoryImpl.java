@@ -0,0 +1,102 @@
+package no.chickendirect.order;
+
+import lombok.RequiredArgsConstructor;
+import no.chickendirect.order.dto.OrderBulkShipResult;
+import no.chickendirect.order.dto.OrderSearchCriteria;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+@RequiredArgsConstructor
+class OrderBulkRepositoryImpl implements OrderBulkRepository {
+
+    // One statement: flip the rows that need it and report an outcome for every requested id
+    private static final String UPDATE_SHIPPED_BY_IDS = """
+            WITH requested AS (
+                SELECT id, ordinality
+                FROM unnest(CAST(:ids AS BIGINT[])) WITH ORDINALITY AS t(id, ordinality)
+            ), updated AS (
+                UPDATE orders o
+                SET is_shipped = :isShipped,
+                    version = o.version + 1
+                FROM requested r
+                WHERE o.id = r.id
+                  AND o.is_shipped IS DISTINCT FROM :isShipped
+                RETURNING o.id
+            )
+            SELECT r.id,
+                   CASE
+                       WHEN u.id IS NOT NULL THEN 'UPDATED'
+                       WHEN o.id IS NOT NULL THEN 'UNCHANGED'
+                       ELSE 'NOT_FOUND'
+                   END AS outcome
+            FROM requested r
+            LEFT JOIN updated u ON u.id = r.id
+            LEFT JOIN orders o ON o.id = r.id
+            ORDER BY r.ordinality
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<OrderBulkShipResult> updateShippedStatusByIds(Collection<Long> orderIds, boolean isShipped) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", orderIds.toArray(Long[]::new))
+                .addValue("isShipped", isShipped);
+
+        return jdbcTemplate.query(UPDATE_SHIPPED_BY_IDS, params, (rs, rowNum) -> new OrderBulkShipResult(
+                rs.getLong("id"),
+                BulkShipOutcome.valueOf(rs.getString("outcome"))
+        ));
+    }
+
+    @Override
+    public List<Long> updateShippedStatusMatching(OrderSearchCriteria filter, boolean isShipped) {
+        MapSqlParameterSource params = new MapSqlParameterSource("isShipped", isShipped);
+        StringBuilder sql = new StringBuilder("""
+                UPDATE orders
+                SET is_shipped = :isShipped,
+                    version = version + 1
+                WHERE is_shipped IS DISTINCT FROM :isShipped
+                """);
+
+        if (filter.isShipped() != null) {
+            sql.append(" AND is_shipped = :filterIsShipped");
+            params.addValue("filterIsShipped", filter.isShipped());
+        }
+        if (filter.createdFrom() != null) {
+            sql.append(" AND creation_date >= :createdFrom");
+            params.addValue("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            sql.append(" AND creation_date < :createdTo");
+            params.addValue("createdTo", filter.createdTo());
+        }
+        if (filter.customerId() != null) {
+            sql.append(" AND customer_id = :customerId");
+            params.addValue("customerId", filter.customerId());
+        }
+        if (hasText(filter.customerEmail())) {
+            sql.append(" AND lower(customer_email) = :customerEmail");
+            params.addValue("customerEmail", filter.customerEmail().trim().toLowerCase(Locale.ROOT));
+        }
+        if (hasText(filter.shippingCity())) {
+            sql.append(" AND shipping_city = :shippingCity");
+            params.addValue("shippingCity", filter.shippingCity().trim());
+        }
+        if (hasText(filter.shippingPostalCode())) {
+            sql.append(" AND shipping_postal_code = :shippingPostalCode");
+            params.addValue("shippingPostalCode", filter.shippingPostalCode().trim());
+        }
+        sql.append(" RETURNING id");
+
+        return jdbcTemplate.queryForList(sql.toString(), params, Long.class);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -1,14 +1,23 @@
 package no.chickendirect.order;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import no.chickendirect.export.ExportFormat;
+import no.chickendirect.order.dto.OrderBulkShipRequest;
+import no.chickendirect.order.dto.OrderBulkShipResponse;
+import no.chickendirect.order.dto.OrderPageResponse;
 import no.chickendirect.order.dto.OrderRequest;
 import no.chickendirect.order.dto.OrderResponse;
+import no.chickendirect.order.dto.OrderSearchCriteria;
 import no.chickendirect.order.dto.OrderUpdateRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("api/orders")
@@ -29,8 +38,38 @@ public class OrderController {
     }
 
     @GetMapping
-    public List<OrderResponse> getAllOrders() {
-        return orderService.getAllOrders();
+    public OrderPageResponse getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return orderService.getOrders(cursor, size);
+    }
+
+    @GetMapping("search")
+    public OrderPageResponse searchOrders(
+            @ModelAttribute OrderSearchCriteria criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return orderService.searchOrders(criteria, cursor, size);
+    }
+
+    @GetMapping("export")
+    public void exportOrders(
+            @RequestParam(defaultValue = "ndjson") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response
+    ) throws IOException {
+        String filename = "orders." + format.fileExtension() + (gzip ? ".gz" : "");
+        if (gzip) {
+            response.setContentType("application/gzip");
+        } else {
+            response.setContentType(format.contentType());
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        orderService.writeExport(format, gzip, response.getOutputStream());
     }
 
     @PutMapping("{id}")
@@ -38,6 +77,11 @@ public class OrderController {
         return orderService.updateOrder(id, request);
     }
 
+    @PostMapping("bulk-ship")
+    public OrderBulkShipResponse bulkUpdateShippedStatus(@Valid @RequestBody OrderBulkShipRequest request) {
+        return orderService.bulkUpdateShippedStatus(request);
+    }
+
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteOrder(@PathVariable Long id) {
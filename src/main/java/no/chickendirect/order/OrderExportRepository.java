@@ -0,0 +1,76 @@
+package no.chickendirect.order;
+
+import lombok.RequiredArgsConstructor;
+import no.chickendirect.order.dto.OrderExportLine;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderExportRepository {
+
+    // One row per order line; orders without lines still get a row with empty line columns
+    private static final String EXPORT_LINES = """
+            SELECT o.id AS order_id,
+                   o.creation_date,
+                   o.customer_id,
+                   o.customer_name,
+                   o.customer_email,
+                   o.shipping_street,
+                   o.shipping_city,
+                   o.shipping_postal_code,
+                   o.shipping_country,
+                   o.total_price,
+                   o.shipping_charge,
+                   o.is_shipped,
+                   oi.id AS order_item_id,
+                   oi.product_id,
+                   oi.product_name,
+                   oi.unit_price,
+                   oi.quantity
+            FROM orders o
+            LEFT JOIN order_item oi ON oi.order_id = o.id
+            ORDER BY o.id, oi.id
+            """;
+
+    // The driver only streams with a fetch size inside a transaction, otherwise it buffers the whole result
+    private static final int EXPORT_FETCH_SIZE = 5_000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void forEachExportLine(Consumer<OrderExportLine> consumer) {
+        jdbcTemplate.getJdbcTemplate().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    EXPORT_LINES, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp creationDate = rs.getTimestamp("creation_date");
+            consumer.accept(new OrderExportLine(
+                    rs.getLong("order_id"),
+                    creationDate != null ? creationDate.toLocalDateTime() : null,
+                    rs.getObject("customer_id", Long.class),
+                    rs.getString("customer_name"),
+                    rs.getString("customer_email"),
+                    rs.getString("shipping_street"),
+                    rs.getString("shipping_city"),
+                    rs.getString("shipping_postal_code"),
+                    rs.getString("shipping_country"),
+                    rs.getBigDecimal("total_price"),
+                    rs.getBigDecimal("shipping_charge"),
+                    rs.getObject("is_shipped", Boolean.class),
+                    rs.getObject("order_item_id", Long.class),
+                    rs.getObject("product_id", Long.class),
+                    rs.getString("product_name"),
+                    rs.getBigDecimal("unit_price"),
+                    rs.getObject("quantity", Integer.class)
+            ));
+        });
+    }
+}
@@ -1,6 +1,70 @@
 package no.chickendirect.order;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderBulkRepository,
+        OrderSearchRepository {
+
+    @Query(value = """
+            SELECT id FROM orders
+            ORDER BY creation_date DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findFirstPageIds(@Param("limit") int limit);
+
+    // Row-value comparison lets Postgres seek straight into idx_orders_creation_date_id
+    @Query(value = """
+            SELECT id FROM orders
+            WHERE (creation_date, id) < (:creationDate, :id)
+            ORDER BY creation_date DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findPageIdsAfter(@Param("creationDate") LocalDateTime creationDate,
+                                @Param("id") Long id,
+                                @Param("limit") int limit);
+
+    @Query("""
+            select distinct o from Order o
+            left join fetch o.items
+            where o.id in :ids
+            """)
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Items live in their own table, so adding or removing one bumps the order's version explicitly.
+    // The row lock makes concurrent item changes on one order queue up instead of failing the version check.
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findForItemChangeById(@Param("id") Long id);
+
+    @Query("""
+            select new no.chickendirect.order.ReceiptStamp(o.id, o.version, coalesce(o.isShipped, false))
+            from Order o
+            where o.id = :id
+            """)
+    Optional<ReceiptStamp> findReceiptStampById(@Param("id") Long id);
+
+    @Query("""
+            select new no.chickendirect.order.OrderCursor(o.creationDate, o.id)
+            from Order o
+            where o.creationDate >= :from and o.creationDate < :to
+              and (o.creationDate > :afterDate or (o.creationDate = :afterDate and o.id > :afterId))
+            order by o.creationDate, o.id
+            limit :limit
+            """)
+    List<OrderCursor> findKeysCreatedBetween(@Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("afterDate") LocalDateTime afterDate,
+                                             @Param("afterId") Long afterId,
+                                             @Param("limit") int limit);
 }
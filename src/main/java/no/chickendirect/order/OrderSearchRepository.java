@@ -0,0 +1,11 @@
+package no.chickendirect.order;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface OrderSearchRepository {
+
+    List<Long> findIds(Specification<Order> spec, Sort sort, int limit);
+}
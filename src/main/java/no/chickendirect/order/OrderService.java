@@ -4,22 +4,41 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import no.chickendirect.address.Address;
 import no.chickendirect.address.AddressService;
+import no.chickendirect.cache.SingleFlight;
 import no.chickendirect.customer.Customer;
 import no.chickendirect.customer.CustomerService;
 import no.chickendirect.customer.dto.CustomerSummaryResponse;
 import no.chickendirect.exception.OrderNotFoundException;
+import no.chickendirect.export.ExportFormat;
+import no.chickendirect.export.RowWriter;
+import no.chickendirect.order.dto.OrderBulkShipRequest;
+import no.chickendirect.order.dto.OrderBulkShipResponse;
+import no.chickendirect.order.dto.OrderBulkShipResult;
+import no.chickendirect.order.dto.OrderLineRequest;
+import no.chickendirect.order.dto.OrderPageResponse;
 import no.chickendirect.order.dto.OrderRequest;
 import no.chickendirect.order.dto.OrderResponse;
+import no.chickendirect.order.dto.OrderSearchCriteria;
 import no.chickendirect.order.dto.OrderUpdateRequest;
 import no.chickendirect.orderitem.OrderItem;
 import no.chickendirect.orderitem.dto.OrderItemResponse;
 import no.chickendirect.product.Product;
-import no.chickendirect.product.dto.ProductResponse;
+import no.chickendirect.product.ProductService;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 @RequiredArgsConstructor
@@ -27,16 +46,32 @@ import java.util.List;
 @Slf4j
 public class OrderService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final List<String> EXPORT_COLUMNS = List.of(
+            "orderId", "creationDate", "customerId", "customerName", "customerEmail",
+            "shippingStreet", "shippingCity", "shippingPostalCode", "shippingCountry",
+            "totalPrice", "shippingCharge", "isShipped",
+            "orderItemId", "productId", "productName", "unitPrice", "quantity");
+
     private final OrderRepository orderRepository;
+    private final OrderExportRepository orderExportRepository;
 
     private final CustomerService customerService;
     private final AddressService addressService;
+    private final ProductService productService;
+    private final SingleFlight singleFlight;
 
     public Order getOrderEntity(Long id) {
         return orderRepository.findById(id)
                 .orElseThrow(() -> new OrderNotFoundException(id));
     }
 
+    public Order getOrderEntityForItemChange(Long id) {
+        return orderRepository.findForItemChangeById(id)
+                .orElseThrow(() -> new OrderNotFoundException(id));
+    }
+
     public OrderResponse createOrder(OrderRequest request) {
         log.info("Creating order for customer id={}", request.customerId());
 
@@ -58,21 +93,100 @@ public class OrderService {
                 .isShipped(Boolean.TRUE.equals(request.isShipped()))
                 .build();
 
+        if (request.items() != null && !request.items().isEmpty()) {
+            // Reserve in product id order so concurrent checkouts lock rows in the same sequence
+            Map<Long, Integer> quantities = request.items().stream()
+                    .collect(Collectors.toMap(OrderLineRequest::productId, OrderLineRequest::quantity,
+                            Integer::sum, TreeMap::new));
+            Map<Long, Product> products = productService.getProductEntities(quantities.keySet());
+            quantities.forEach(productService::reserveStock);
+            request.items().forEach(line -> {
+                Product product = products.get(line.productId());
+                order.addOrderItem(OrderItem.builder()
+                        .product(product)
+                        .productName(product.getName())
+                        .unitPrice(product.getPrice())
+                        .quantity(line.quantity())
+                        .build());
+            });
+        }
+
         Order saved = orderRepository.save(order);
         return toOrderResponse(saved);
     }
 
-    @Transactional(readOnly = true)
+    // Runs outside a transaction so callers waiting on a shared load do not each hold a connection
+    @Transactional(propagation = Propagation.SUPPORTS)
     public OrderResponse getOrder(Long id) {
-        Order order = getOrderEntity(id);
-        return toOrderResponse(order);
+        return singleFlight.load("order", id, () -> loadOrder(id));
     }
 
-    @Transactional(readOnly = true)
-    public List<OrderResponse> getAllOrders() {
-        return orderRepository.findAll().stream()
+    // Uncoalesced, so the result is never older than the caller's own request
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public OrderResponse loadOrder(Long id) {
+        return orderRepository.findWithItemsByIdIn(List.of(id)).stream()
+                .findFirst()
                 .map(this::toOrderResponse)
-                .toList();
+                .orElseThrow(() -> new OrderNotFoundException(id));
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPageResponse getOrders(String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+
+        List<Long> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = orderRepository.findFirstPageIds(pageSize + 1);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            ids = orderRepository.findPageIdsAfter(after.creationDate(), after.id(), pageSize + 1);
+        }
+
+        return toOrderPage(ids, pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPageResponse searchOrders(OrderSearchCriteria criteria, String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+
+        Specification<Order> spec = OrderSpecifications.matching(criteria);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(OrderSpecifications.after(OrderCursor.decode(cursor)));
+        }
+
+        List<Long> ids = orderRepository.findIds(spec, OrderSpecifications.KEYSET_SORT, pageSize + 1);
+
+        return toOrderPage(ids, pageSize);
+    }
+
+    // Rows go from the JDBC cursor to the output stream one at a time, so heap use does not depend on row count
+    @Transactional(readOnly = true)
+    public void writeExport(ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+        RowWriter writer = format.open(compressed != null ? compressed : out, EXPORT_COLUMNS);
+        orderExportRepository.forEachExportLine(line -> writer.writeRow(
+                line.orderId(),
+                line.creationDate(),
+                line.customerId(),
+                line.customerName(),
+                line.customerEmail(),
+                line.shippingStreet(),
+                line.shippingCity(),
+                line.shippingPostalCode(),
+                line.shippingCountry(),
+                line.totalPrice(),
+                line.shippingCharge(),
+                line.isShipped(),
+                line.orderItemId(),
+                line.productId(),
+                line.productName(),
+                line.unitPrice(),
+                line.quantity()
+        ));
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
     }
 
     public OrderResponse updateOrder(Long id, OrderUpdateRequest request) {
@@ -91,12 +205,54 @@ public class OrderService {
         return toOrderResponse(updated);
     }
 
+    public OrderBulkShipResponse bulkUpdateShippedStatus(OrderBulkShipRequest request) {
+        boolean isShipped = request.isShipped();
+
+        List<OrderBulkShipResult> results;
+        if (request.orderIds() != null && !request.orderIds().isEmpty()) {
+            log.info("Bulk updating isShipped={} for {} order ids", isShipped, request.orderIds().size());
+            results = orderRepository.updateShippedStatusByIds(new LinkedHashSet<>(request.orderIds()), isShipped);
+        } else {
+            log.info("Bulk updating isShipped={} for orders matching {}", isShipped, request.filter());
+            results = orderRepository.updateShippedStatusMatching(request.filter(), isShipped).stream()
+                    .map(id -> new OrderBulkShipResult(id, BulkShipOutcome.UPDATED))
+                    .toList();
+        }
+
+        int updated = (int) results.stream()
+                .filter(result -> result.outcome() == BulkShipOutcome.UPDATED)
+                .count();
+        return new OrderBulkShipResponse(updated, results);
+    }
+
     public void deleteOrder(Long id) {
         log.info("Deleting order with id={}", id);
-        if (!orderRepository.existsById(id)) {
-            throw new OrderNotFoundException(id);
+        Order order = getOrderEntityForItemChange(id);
+        if (!Boolean.TRUE.equals(order.getIsShipped())) {
+            // Released in product id order, like reservations, so concurrent cancellations lock rows in one sequence
+            order.getItems().stream()
+                    .collect(Collectors.toMap(item -> item.getProduct().getId(), OrderItem::getQuantity,
+                            Integer::sum, TreeMap::new))
+                    .forEach(productService::releaseStock);
         }
-        orderRepository.deleteById(id);
+        orderRepository.delete(order);
+    }
+
+    private OrderPageResponse toOrderPage(List<Long> ids, int pageSize) {
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        if (pageIds.isEmpty()) {
+            return new OrderPageResponse(List.of(), null);
+        }
+
+        Map<Long, Order> ordersById = orderRepository.findWithItemsByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        List<Order> page = pageIds.stream()
+                .map(ordersById::get)
+                .toList();
+
+        String nextCursor = hasNext ? OrderCursor.of(page.getLast()).encode() : null;
+        return new OrderPageResponse(page.stream().map(this::toOrderResponse).toList(), nextCursor);
     }
 
     private OrderResponse toOrderResponse(Order order) {
@@ -120,28 +276,17 @@ public class OrderService {
     }
 
     private OrderItemResponse toOrderItemResponse(OrderItem orderItem) {
-        BigDecimal lineTotal = orderItem.getProduct()
-                .getPrice()
+        BigDecimal lineTotal = orderItem.getUnitPrice()
                 .multiply(BigDecimal.valueOf(orderItem.getQuantity()));
 
         return new OrderItemResponse(
                 orderItem.getId(),
                 orderItem.getQuantity(),
-                toProductResponse(orderItem.getProduct()),
+                orderItem.getProduct().getId(),
+                orderItem.getProductName(),
+                orderItem.getUnitPrice(),
                 orderItem.getOrder().getId(),
                 lineTotal
         );
     }
-
-
-    private ProductResponse toProductResponse(Product product) {
-        return new ProductResponse(
-                product.getId(),
-                product.getName(),
-                product.getDescription(),
-                product.getPrice(),
-                product.getStatus(),
-                product.getQuantityOnHand()
-        );
-    }
 }
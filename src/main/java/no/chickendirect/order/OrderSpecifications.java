@@ -0,0 +1,62 @@
+package no.chickendirect.order;
+
+import no.chickendirect.order.dto.OrderSearchCriteria;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class OrderSpecifications {
+
+    public static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("creationDate"), Sort.Order.desc("id"));
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> matching(OrderSearchCriteria criteria) {
+        List<Specification<Order>> specs = new ArrayList<>();
+
+        if (criteria.isShipped() != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("isShipped"), criteria.isShipped()));
+        }
+        if (criteria.createdFrom() != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("creationDate"), criteria.createdFrom()));
+        }
+        if (criteria.createdTo() != null) {
+            specs.add((root, query, cb) -> cb.lessThan(root.get("creationDate"), criteria.createdTo()));
+        }
+        if (criteria.customerId() != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("customer").get("id"), criteria.customerId()));
+        }
+        if (hasText(criteria.customerEmail())) {
+            String email = criteria.customerEmail().trim().toLowerCase(Locale.ROOT);
+            specs.add((root, query, cb) -> cb.equal(cb.lower(root.get("customerEmail")), email));
+        }
+        if (hasText(criteria.shippingCity())) {
+            specs.add((root, query, cb) -> cb.equal(root.get("shippingCity"), criteria.shippingCity().trim()));
+        }
+        if (hasText(criteria.shippingPostalCode())) {
+            specs.add((root, query, cb) -> cb.equal(root.get("shippingPostalCode"), criteria.shippingPostalCode().trim()));
+        }
+
+        return Specification.allOf(specs);
+    }
+
+    // The leading "<=" bound is what lets Postgres seek into the (..., creation_date DESC, id DESC) indexes;
+    // the OR only breaks ties on the boundary timestamp.
+    public static Specification<Order> after(OrderCursor cursor) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("creationDate"), cursor.creationDate()),
+                cb.or(
+                        cb.lessThan(root.get("creationDate"), cursor.creationDate()),
+                        cb.lessThan(root.get("id"), cursor.id())
+                )
+        );
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -1,25 +1,88 @@
 package no.chickendirect.order;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import no.chickendirect.order.dto.OrderResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 
 @Controller
 @RequestMapping("/orders")
 @RequiredArgsConstructor
 public class OrderViewController {
 
-    private final OrderService orderService;
+    private static final MediaType TEXT_HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
+    private final ReceiptService receiptService;
 
     @GetMapping("/{id}/receipt")
-    public String showReceipt(@PathVariable Long id, Model model) {
-        OrderResponse order = orderService.getOrder(id);
-        model.addAttribute("order", order);
-        return "receipt";
+    public ResponseEntity<byte[]> showReceipt(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                              String acceptEncoding,
+                                              WebRequest request) {
+        ReceiptStamp stamp = receiptService.getStamp(id);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = stamp.etag(gzip);
+        CacheControl cacheControl = receiptService.cacheControl(stamp);
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ReceiptService.RenderedReceipt receipt = receiptService.getReceipt(stamp);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(TEXT_HTML_UTF8);
+        return gzip
+                ? response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(receipt.gzip())
+                : response.body(receipt.html());
     }
-}
 
+    @GetMapping("/receipts")
+    public void exportReceipts(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               HttpServletResponse response) throws IOException {
+        // Rejected before anything is written, since the status cannot change once the ZIP starts streaming
+        receiptService.validateExportRange(from, to);
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("receipts-" + from + "-" + to + ".zip")
+                .build()
+                .toString());
+        receiptService.writeReceiptZip(from, to, response.getOutputStream());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+package no.chickendirect.order;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "receipts")
+public record ReceiptProperties(
+        @DefaultValue("32MB") DataSize cacheSize,
+        @DefaultValue("5m") Duration shippedMaxAge,
+        @DefaultValue("8") int exportConcurrency
+) {}
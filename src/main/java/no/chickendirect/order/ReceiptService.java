@@ -0,0 +1,221 @@
+package no.chickendirect.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.cache.SingleFlight;
+import no.chickendirect.exception.InvalidDateRangeException;
+import no.chickendirect.exception.OrderNotFoundException;
+import no.chickendirect.order.dto.OrderResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Receipts are rendered once per order version and kept gzipped. A cheap stamp query decides whether
+// the cached bytes are still current, so any change that bumps the version (on any node) invalidates them.
+@Service
+@EnableConfigurationProperties(ReceiptProperties.class)
+@Slf4j
+public class ReceiptService {
+
+    private static final int EXPORT_PAGE_SIZE = 500;
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final ITemplateEngine templateEngine;
+    private final SingleFlight singleFlight;
+    private final ReceiptProperties properties;
+
+    private final Cache<Long, RenderedReceipt> receipts;
+
+    public ReceiptService(OrderRepository orderRepository,
+                          OrderService orderService,
+                          ITemplateEngine templateEngine,
+                          SingleFlight singleFlight,
+                          ReceiptProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.templateEngine = templateEngine;
+        this.singleFlight = singleFlight;
+        this.properties = properties;
+        this.receipts = Caffeine.newBuilder()
+                .maximumWeight(properties.cacheSize().toBytes())
+                .weigher((Long orderId, RenderedReceipt receipt) -> receipt.gzip().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, receipts, "receipts");
+    }
+
+    @Transactional(readOnly = true)
+    public ReceiptStamp getStamp(Long orderId) {
+        return orderRepository.findReceiptStampById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+    }
+
+    // Shipped orders rarely change but still can (updates, item corrections), so browsers may reuse them
+    // briefly and then revalidate with the ETag; anything else must revalidate every time
+    public CacheControl cacheControl(ReceiptStamp stamp) {
+        return stamp.shipped()
+                ? CacheControl.maxAge(properties.shippedMaxAge()).cachePrivate()
+                : CacheControl.noCache().cachePrivate();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public RenderedReceipt getReceipt(ReceiptStamp stamp) {
+        RenderedReceipt cached = receipts.getIfPresent(stamp.orderId());
+        if (cached != null && cached.version() >= stamp.version()) {
+            return cached;
+        }
+        return singleFlight.load("receipt", stamp, () -> render(stamp));
+    }
+
+    public void validateExportRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new InvalidDateRangeException(from, to);
+        }
+    }
+
+    // Renders run on virtual threads, at most exportConcurrency at a time. Entries are written in creation
+    // order as soon as the oldest render finishes, so memory holds one window of receipts, not the whole range.
+    public void writeReceiptZip(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        validateExportRange(from, to);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        int window = Math.max(1, properties.exportConcurrency());
+
+        Deque<Future<ReceiptEntry>> inFlight = new ArrayDeque<>(window);
+        int written = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            try {
+                OrderCursor after = new OrderCursor(start, 0L);
+                List<OrderCursor> page;
+                do {
+                    page = orderRepository.findKeysCreatedBetween(start, end, after.creationDate(), after.id(),
+                            EXPORT_PAGE_SIZE);
+                    for (OrderCursor key : page) {
+                        if (inFlight.size() == window) {
+                            written += writeEntry(zip, inFlight.removeFirst());
+                        }
+                        inFlight.addLast(executor.submit(() -> renderForExport(key.id())));
+                    }
+                    if (!page.isEmpty()) {
+                        after = page.getLast();
+                    }
+                } while (page.size() == EXPORT_PAGE_SIZE);
+
+                while (!inFlight.isEmpty()) {
+                    written += writeEntry(zip, inFlight.removeFirst());
+                }
+            } finally {
+                // A failed write (usually the client going away) must not leave renders running
+                inFlight.forEach(future -> future.cancel(true));
+            }
+        }
+        log.info("Exported {} receipts created between {} and {}", written, from, to);
+    }
+
+    private ReceiptEntry renderForExport(Long orderId) {
+        try {
+            // Bypasses the render cache so a month of old receipts does not evict the ones customers are viewing
+            return new ReceiptEntry(orderId, renderHtml(orderService.loadOrder(orderId)));
+        } catch (OrderNotFoundException e) {
+            return new ReceiptEntry(orderId, null);
+        }
+    }
+
+    private static int writeEntry(ZipOutputStream zip, Future<ReceiptEntry> future) throws IOException {
+        ReceiptEntry entry = await(future);
+        if (entry.html() == null) {
+            // Deleted after the range was paged
+            return 0;
+        }
+        zip.putNextEntry(new ZipEntry("receipt-" + entry.orderId() + ".html"));
+        zip.write(entry.html());
+        zip.closeEntry();
+        return 1;
+    }
+
+    private static ReceiptEntry await(Future<ReceiptEntry> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while exporting receipts", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private byte[] renderHtml(OrderResponse order) {
+        String html = templateEngine.process("receipt", new Context(Locale.ROOT, Map.of("order", order)));
+        return html.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private RenderedReceipt render(ReceiptStamp stamp) {
+        // Loaded after the stamp was read, so the content is at least as new as the version it is stored under
+        OrderResponse order = orderService.loadOrder(stamp.orderId());
+        RenderedReceipt rendered = new RenderedReceipt(stamp.version(), gzip(renderHtml(order)));
+        receipts.asMap().merge(stamp.orderId(), rendered,
+                (current, next) -> next.version() >= current.version() ? next : current);
+        log.debug("Rendered receipt for order id={} version={} ({} bytes gzipped)",
+                stamp.orderId(), stamp.version(), rendered.gzip().length);
+        return rendered;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private record ReceiptEntry(Long orderId, byte[] html) {}
+
+    public record RenderedReceipt(long version, byte[] gzip) {
+
+        // Only clients that do not accept gzip pay for decompression
+        public byte[] html() {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
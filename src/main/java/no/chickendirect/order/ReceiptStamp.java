@@ -0,0 +1,10 @@
+package no.chickendirect.order;
+
+// Just enough of an order to validate a cached receipt without loading the order itself
+public record ReceiptStamp(Long orderId, long version, boolean shipped) {
+
+    // Each content coding is its own representation, so each gets its own strong validator
+    public String etag(boolean gzip) {
+        return orderId + "-" + version + (gzip ? "-gzip" : "");
+    }
+}
@@ -0,0 +1,21 @@
+package no.chickendirect.order.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record OrderBulkShipRequest(
+        @Size(max = 10_000) List<@NotNull Long> orderIds,
+        OrderSearchCriteria filter,
+        @NotNull Boolean isShipped
+) {
+
+    @AssertTrue(message = "Provide either orderIds or a non-empty filter, not both")
+    public boolean isTargetValid() {
+        boolean hasIds = orderIds != null && !orderIds.isEmpty();
+        boolean hasFilter = filter != null && filter.hasAnyFilter();
+        return hasIds != hasFilter;
+    }
+}
@@ -0,0 +1,8 @@
+package no.chickendirect.order.dto;
+
+import no.chickendirect.order.BulkShipOutcome;
+
+public record OrderBulkShipResult(
+        Long orderId,
+        BulkShipOutcome outcome
+) {}
@@ -0,0 +1,24 @@
+package no.chickendirect.order.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record OrderExportLine(
+        Long orderId,
+        LocalDateTime creationDate,
+        Long customerId,
+        String customerName,
+        String customerEmail,
+        String shippingStreet,
+        String shippingCity,
+        String shippingPostalCode,
+        String shippingCountry,
+        BigDecimal totalPrice,
+        BigDecimal shippingCharge,
+        Boolean isShipped,
+        Long orderItemId,
+        Long productId,
+        String productName,
+        BigDecimal unitPrice,
+        Integer quantity
+) {}
@@ -0,0 +1,9 @@
+package no.chickendirect.order.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record OrderLineRequest(
+        @NotNull Long productId,
+        @NotNull @Positive Integer quantity
+) {}
@@ -0,0 +1,8 @@
+package no.chickendirect.order.dto;
+
+import java.util.List;
+
+public record OrderPageResponse(
+        List<OrderResponse> items,
+        String nextCursor
+) {}
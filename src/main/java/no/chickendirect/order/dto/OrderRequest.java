@@ -1,14 +1,18 @@
 package no.chickendirect.order.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public record OrderRequest(
         @NotNull Long customerId,
         @NotNull Long shippingAddressId,
         @NotNull @PositiveOrZero BigDecimal totalPrice,
         @NotNull @PositiveOrZero BigDecimal shippingCharge,
-        Boolean isShipped
+        Boolean isShipped,
+        @Size(max = 500) List<@Valid @NotNull OrderLineRequest> items
 ) {}
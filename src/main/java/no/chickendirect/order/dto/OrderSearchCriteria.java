@@ -0,0 +1,30 @@
+package no.chickendirect.order.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public record OrderSearchCriteria(
+        Boolean isShipped,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        Long customerId,
+        String customerEmail,
+        String shippingCity,
+        String shippingPostalCode
+) {
+
+    public boolean hasAnyFilter() {
+        return isShipped != null
+                || createdFrom != null
+                || createdTo != null
+                || customerId != null
+                || hasText(customerEmail)
+                || hasText(shippingCity)
+                || hasText(shippingPostalCode);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -2,15 +2,20 @@ package no.chickendirect.orderitem;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import no.chickendirect.config.IdAllocation;
 import no.chickendirect.order.Order;
 import no.chickendirect.product.Product;
 
+import java.math.BigDecimal;
+
 @Entity
 @Data
 @Builder
@@ -20,7 +25,8 @@ import no.chickendirect.product.Product;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_id_seq")
+    @SequenceGenerator(name = "order_item_id_seq", sequenceName = "order_item_id_seq", allocationSize = IdAllocation.SIZE)
     private Long id;
 
     @NotNull
@@ -28,7 +34,14 @@ public class OrderItem {
     private Integer quantity;
 
     @NotNull
-    @ManyToOne
+    @PositiveOrZero
+    private BigDecimal unitPrice;
+
+    @NotBlank
+    private String productName;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
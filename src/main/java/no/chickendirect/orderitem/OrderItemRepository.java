@@ -1,6 +1,14 @@
 package no.chickendirect.orderitem;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    // Resolves the owning order without putting an order proxy into the persistence context
+    @Query("select i.order.id from OrderItem i where i.id = :id")
+    Optional<Long> findOrderIdById(@Param("id") Long id);
 }
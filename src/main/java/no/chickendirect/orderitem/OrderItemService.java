@@ -15,7 +15,6 @@ import no.chickendirect.orderitem.dto.OrderItemRequest;
 import no.chickendirect.orderitem.dto.OrderItemResponse;
 import no.chickendirect.product.Product;
 import no.chickendirect.product.ProductService;
-import no.chickendirect.product.dto.ProductResponse;
 
 @Service
 @RequiredArgsConstructor
@@ -33,10 +32,14 @@ public class OrderItemService {
 
         Product product = productService.getProductEntity(request.productId());
 
-        Order order = orderService.getOrderEntity(request.orderId());
+        Order order = orderService.getOrderEntityForItemChange(request.orderId());
+
+        productService.reserveStock(product.getId(), request.quantity());
 
         OrderItem orderItem = OrderItem.builder()
                 .quantity(request.quantity())
+                .unitPrice(product.getPrice())
+                .productName(product.getName())
                 .product(product)
                 .order(order)
                 .build();
@@ -61,34 +64,30 @@ public class OrderItemService {
 
     public void deleteOrderItem(Long id) {
         log.info("Deleting order item with id={}", id);
-        if (!orderItemRepository.existsById(id)) {
-            throw new OrderItemNotFoundException(id);
+        Long orderId = orderItemRepository.findOrderIdById(id)
+                .orElseThrow(() -> new OrderItemNotFoundException(id));
+        // Lock the order before loading the item, so the order is not already in the session as a proxy
+        Order order = orderService.getOrderEntityForItemChange(orderId);
+        OrderItem orderItem = orderItemRepository.findById(id)
+                .orElseThrow(() -> new OrderItemNotFoundException(id));
+        if (!Boolean.TRUE.equals(order.getIsShipped())) {
+            productService.releaseStock(orderItem.getProduct().getId(), orderItem.getQuantity());
         }
-        orderItemRepository.deleteById(id);
+        orderItemRepository.delete(orderItem);
     }
 
     private OrderItemResponse toOrderItemResponse(OrderItem orderItem) {
-        BigDecimal lineTotal = orderItem.getProduct()
-                .getPrice()
+        BigDecimal lineTotal = orderItem.getUnitPrice()
                 .multiply(BigDecimal.valueOf(orderItem.getQuantity()));
 
         return new OrderItemResponse(
                 orderItem.getId(),
                 orderItem.getQuantity(),
-                toProductResponse(orderItem.getProduct()),
+                orderItem.getProduct().getId(),
+                orderItem.getProductName(),
+                orderItem.getUnitPrice(),
                 orderItem.getOrder().getId(),
                 lineTotal
         );
     }
-
-    private ProductResponse toProductResponse(Product product) {
-        return new ProductResponse(
-                product.getId(),
-                product.getName(),
-                product.getDescription(),
-                product.getPrice(),
-                product.getStatus(),
-                product.getQuantityOnHand()
-        );
-    }
 }
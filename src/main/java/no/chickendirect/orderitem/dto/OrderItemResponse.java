@@ -1,13 +1,13 @@
 package no.chickendirect.orderitem.dto;
 
-import no.chickendirect.product.dto.ProductResponse;
-
 import java.math.BigDecimal;
 
 public record OrderItemResponse(
         Long id,
         Integer quantity,
-        ProductResponse product,
+        Long productId,
+        String productName,
+        BigDecimal unitPrice,
         Long orderId,
         BigDecimal lineTotal
 ) {
@@ -0,0 +1,179 @@
+package no.chickendirect.product;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.cache.CacheTopic;
+import no.chickendirect.cache.InvalidationBus;
+import no.chickendirect.exception.InsufficientStockException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@EnableConfigurationProperties(HotInventoryProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class HotInventory {
+
+    private final HotStockRepository hotStockRepository;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final HotInventoryProperties properties;
+    private final InvalidationBus invalidationBus;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    // Generated per process, so two instances never share a lease, even on the same host or after a restart
+    private final String owner = UUID.randomUUID().toString();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        log.info("Hot inventory leasing as owner={}", owner);
+        reclaimExpiredLeases();
+        properties.productIds().forEach(this::enable);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public boolean isHot(Long productId) {
+        return counters.containsKey(productId);
+    }
+
+    public synchronized void enable(Long productId) {
+        if (!counters.containsKey(productId)) {
+            StripedStockCounter counter = new StripedStockCounter(Runtime.getRuntime().availableProcessors());
+            counter.credit(hotStockRepository.lease(productId, owner, properties.leaseSize()));
+            counters.put(productId, counter);
+            log.info("Hot inventory enabled for product id={} with {} units leased", productId, counter.available());
+        }
+    }
+
+    public synchronized void disable(Long productId) {
+        StripedStockCounter counter = counters.remove(productId);
+        if (counter != null) {
+            counter.drain();
+            int returned = hotStockRepository.release(productId, owner);
+            log.info("Hot inventory disabled for product id={}, returned {} units", productId, returned);
+            if (returned > 0) {
+                invalidationBus.publish(CacheTopic.PRODUCT, productId);
+            }
+        }
+    }
+
+    // False when the product is not (or no longer) hot, and the caller should reserve from the ledger instead
+    public boolean tryReserve(Long productId, int quantity) {
+        StripedStockCounter counter = counters.get(productId);
+        if (counter == null) {
+            return false;
+        }
+
+        if (counter.tryDebit(quantity)) {
+            if (!hotStockRepository.logReservation(productId, owner, quantity)) {
+                // Another instance took the lease back after we missed the lease timeout, and its units are in the
+                // ledger again. Drop what the counter still holds, as the next flush would, and sell from the ledger.
+                log.warn("Lease on product id={} was reclaimed, dropping {} units", productId, counter.drain());
+                return false;
+            }
+            // Only once the sale is logged, so units of a reclaimed lease never come back on a rollback
+            creditOnRollback(counter, quantity);
+            return true;
+        }
+        synchronized (counter) {
+            if (!reserveSlow(productId, counter, quantity)) {
+                return false;
+            }
+        }
+        // reserveSlow leased inside this transaction, so the lease row is there and locked until it ends
+        hotStockRepository.logReservation(productId, owner, quantity);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hot.flush-interval:500ms}")
+    public synchronized void flush() {
+        counters.forEach((productId, counter) -> {
+            if (!hotStockRepository.flush(productId, owner) && counter.available() > 0) {
+                // Another instance took the lease back after we missed the lease timeout
+                log.warn("Lease on product id={} was reclaimed, dropping {} units", productId, counter.drain());
+            }
+            if (counter.available() < properties.leaseSize() / 2) {
+                int granted = hotStockRepository.lease(productId, owner, properties.leaseSize());
+                counter.credit(granted);
+                if (granted == 0 && counter.available() == 0
+                        && stockLedgerRepository.markOutOfStockIfEmpty(productId)) {
+                    invalidationBus.publish(CacheTopic.PRODUCT, productId);
+                }
+            }
+        });
+    }
+
+    // Leases left by a crashed or stalled instance, whichever owner it was
+    @Scheduled(fixedDelayString = "${inventory.hot.lease-timeout:30s}")
+    public void reclaimExpiredLeases() {
+        hotStockRepository.findExpiredLeases(properties.leaseTimeout()).forEach(lease -> {
+            int returned = hotStockRepository.releaseIfExpired(lease.productId(), lease.owner(), properties.leaseTimeout());
+            log.info("Returned {} unsold units of product id={} leased by expired owner={}",
+                    returned, lease.productId(), lease.owner());
+            if (returned > 0) {
+                invalidationBus.publish(CacheTopic.PRODUCT, lease.productId());
+            }
+        });
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        counters.keySet().forEach(this::disable);
+    }
+
+    private boolean reserveSlow(Long productId, StripedStockCounter counter, int quantity) {
+        // Units may be spread thinner than the request across stripes
+        long pooled = counter.drain();
+        if (pooled >= quantity) {
+            counter.credit(pooled - quantity);
+            creditOnRollback(counter, quantity);
+            return true;
+        }
+        if (counters.get(productId) != counter) {
+            // Disabled since we looked the counter up, and its lease is already back in the ledger
+            counter.credit(pooled);
+            return false;
+        }
+
+        // Lease inside the buyer's transaction so a rollback also undoes the lease;
+        // the leftover only becomes sellable to others once that transaction commits.
+        int granted = hotStockRepository.lease(productId, owner,
+                Math.max(properties.leaseSize(), quantity - (int) pooled));
+        if (pooled + granted < quantity || counters.get(productId) != counter) {
+            counter.credit(pooled);
+            throw new InsufficientStockException(productId, quantity);
+        }
+
+        long leftover = pooled + granted - quantity;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                counter.credit(status == STATUS_COMMITTED ? leftover : pooled);
+            }
+        });
+        return true;
+    }
+
+    private void creditOnRollback(StripedStockCounter counter, int quantity) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    counter.credit(quantity);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,14 @@
+package no.chickendirect.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "inventory.hot")
+public record HotInventoryProperties(
+        @DefaultValue List<Long> productIds,
+        @DefaultValue("100") int leaseSize,
+        @DefaultValue("30s") Duration leaseTimeout
+) {}
@@ -0,0 +1,155 @@
+package no.chickendirect.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class HotStockRepository {
+
+    private static final String UPSERT_LEASE = """
+            INSERT INTO hot_stock_lease (product_id, owner, quantity)
+            VALUES (:productId, :owner, :quantity)
+            ON CONFLICT (product_id, owner)
+            DO UPDATE SET quantity = hot_stock_lease.quantity + EXCLUDED.quantity,
+                          updated_at = now()
+            """;
+
+    // Logged only against a lease that still exists: another instance may have reclaimed it while the owner's
+    // counter still held units. The key share lock keeps it from being reclaimed until the sale commits.
+    private static final String LOG_RESERVATION = """
+            INSERT INTO hot_stock_reservation (product_id, owner, quantity)
+            SELECT product_id, owner, :quantity
+            FROM hot_stock_lease
+            WHERE product_id = :productId
+              AND owner = :owner
+            FOR KEY SHARE
+            """;
+
+    private static final String FLUSH = """
+            WITH flushed AS (
+                DELETE FROM hot_stock_reservation
+                WHERE product_id = :productId
+                  AND owner = :owner
+                RETURNING quantity
+            )
+            UPDATE hot_stock_lease
+            SET quantity = quantity - (SELECT COALESCE(SUM(quantity), 0) FROM flushed),
+                updated_at = now()
+            WHERE product_id = :productId
+              AND owner = :owner
+            """;
+
+    private static final String LOCK_LEASE = """
+            SELECT quantity
+            FROM hot_stock_lease
+            WHERE product_id = :productId
+              AND owner = :owner
+            FOR UPDATE
+            """;
+
+    // Re-checked under the row lock, so an owner that flushed since the lease was found keeps it
+    private static final String LOCK_EXPIRED_LEASE = """
+            SELECT quantity
+            FROM hot_stock_lease
+            WHERE product_id = :productId
+              AND owner = :owner
+              AND updated_at < now() - make_interval(secs => :timeoutSeconds)
+            FOR UPDATE
+            """;
+
+    private static final String FIND_EXPIRED_LEASES = """
+            SELECT product_id, owner
+            FROM hot_stock_lease
+            WHERE updated_at < now() - make_interval(secs => :timeoutSeconds)
+            """;
+
+    private static final String DELETE_LEASE = """
+            WITH sold AS (
+                DELETE FROM hot_stock_reservation
+                WHERE product_id = :productId
+                  AND owner = :owner
+                RETURNING quantity
+            ),
+            lease AS (
+                DELETE FROM hot_stock_lease
+                WHERE product_id = :productId
+                  AND owner = :owner
+                RETURNING quantity
+            )
+            SELECT (SELECT COALESCE(SUM(quantity), 0) FROM lease)
+                 - (SELECT COALESCE(SUM(quantity), 0) FROM sold)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final StockLedgerRepository stockLedgerRepository;
+
+    @Transactional
+    public int lease(Long productId, String owner, int size) {
+        Integer available = stockLedgerRepository.lockAvailable(productId);
+        int granted = available != null ? Math.min(available, size) : 0;
+        if (granted > 0) {
+            stockLedgerRepository.append(productId, StockMovementType.HOT_LEASE, -granted);
+            jdbcTemplate.update(UPSERT_LEASE, leaseParams(productId, owner).addValue("quantity", granted));
+        }
+        return granted;
+    }
+
+    // False when the owner no longer holds a lease on the product
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean logReservation(Long productId, String owner, int quantity) {
+        return jdbcTemplate.update(LOG_RESERVATION, leaseParams(productId, owner).addValue("quantity", quantity)) > 0;
+    }
+
+    // Also the owner's heartbeat: a lease not flushed within the lease timeout is taken back by any instance
+    @Transactional
+    public boolean flush(Long productId, String owner) {
+        return jdbcTemplate.update(FLUSH, leaseParams(productId, owner)) > 0;
+    }
+
+    @Transactional
+    public int release(Long productId, String owner) {
+        return returnUnsold(productId, LOCK_LEASE, leaseParams(productId, owner));
+    }
+
+    @Transactional
+    public int releaseIfExpired(Long productId, String owner, Duration timeout) {
+        return returnUnsold(productId, LOCK_EXPIRED_LEASE, leaseParams(productId, owner)
+                .addValue("timeoutSeconds", timeout.toSeconds()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Lease> findExpiredLeases(Duration timeout) {
+        return jdbcTemplate.query(FIND_EXPIRED_LEASES,
+                new MapSqlParameterSource("timeoutSeconds", timeout.toSeconds()),
+                (rs, rowNum) -> new Lease(rs.getLong("product_id"), rs.getString("owner")));
+    }
+
+    private int returnUnsold(Long productId, String lockSql, MapSqlParameterSource params) {
+        if (jdbcTemplate.queryForList(lockSql, params, Integer.class).isEmpty()) {
+            return 0;
+        }
+        Integer unsold = jdbcTemplate.queryForObject(DELETE_LEASE, params, Integer.class);
+        if (unsold == null || unsold == 0) {
+            return 0;
+        }
+        stockLedgerRepository.append(productId, StockMovementType.HOT_RETURN, unsold);
+        stockLedgerRepository.markInStockIfAvailable(productId);
+        return unsold;
+    }
+
+    public record Lease(Long productId, String owner) {}
+
+    private MapSqlParameterSource leaseParams(Long productId, String owner) {
+        return new MapSqlParameterSource()
+                .addValue("productId", productId)
+                .addValue("owner", owner);
+    }
+}
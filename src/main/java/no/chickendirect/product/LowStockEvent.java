@@ -0,0 +1,10 @@
+package no.chickendirect.product;
+
+import java.util.List;
+
+import no.chickendirect.product.dto.LowStockProduct;
+
+// Published once per scan with every product that fell to or below its threshold since the previous scan
+public record LowStockEvent(
+        List<LowStockProduct> products
+) {}
@@ -0,0 +1,11 @@
+package no.chickendirect.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "inventory.low-stock")
+public record LowStockProperties(
+        @DefaultValue("5m") Duration lookBack
+) {}
@@ -0,0 +1,155 @@
+package no.chickendirect.product;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import no.chickendirect.product.dto.LowStockProduct;
+import no.chickendirect.product.dto.LowStockReport;
+
+@Repository
+@RequiredArgsConstructor
+public class LowStockRepository {
+
+    // Held until the scan commits, so one node scans and alerts at a time. The two-key form keeps it
+    // apart from the ledger's per-product locks, which take a single bigint key.
+    private static final String TRY_LOCK_SCAN = "SELECT pg_try_advisory_xact_lock(hashtext('low_stock_scan'), 0)";
+
+    private static final String LAST_SCAN = "SELECT last_movement_id, scanned_at FROM low_stock_scan";
+
+    // Movement ids are taken before commit, so one can become visible after a higher id was already read.
+    // The watermark therefore stays at the newest movement older than the look-back and every scan rereads
+    // the window after it; only a transaction open for longer than that could still slip past.
+    private static final String WATERMARK = """
+            SELECT COALESCE(MAX(id), 0)
+            FROM stock_movement
+            WHERE created_at < now() - make_interval(secs => :lookBackSeconds)
+            """;
+
+    // Candidates are products whose snapshot is already low (idx_product_low_stock), products with stock
+    // movements since the watermark (a primary key range on the ledger) and the products alerted before,
+    // which may have recovered. Only those have their live quantity summed, so the scan never walks the
+    // whole catalog.
+    private static final String CANDIDATES = """
+            SELECT id
+            FROM product
+            WHERE reorder_threshold IS NOT NULL
+              AND stock_snapshot_quantity <= reorder_threshold
+              AND deleted_at IS NULL
+              AND status <> 'DISCONTINUED'
+            UNION
+            SELECT product_id
+            FROM stock_movement
+            WHERE id > :afterMovementId
+            UNION
+            SELECT product_id
+            FROM low_stock_alert
+            """;
+
+    // A separate statement because Postgres cannot estimate a column-to-column comparison: joined in one
+    // query, the index's handful of rows is planned as a third of the catalog and met with a full scan
+    private static final String LOW_STOCK = """
+            SELECT p.id, p.name, p.reorder_threshold, s.quantity_on_hand
+            FROM product p
+            CROSS JOIN LATERAL (SELECT quantity_on_hand
+                                FROM product_stock
+                                WHERE product_id = p.id) s
+            WHERE p.id = ANY(CAST(:ids AS BIGINT[]))
+              AND p.reorder_threshold IS NOT NULL
+              AND p.deleted_at IS NULL
+              AND p.status <> 'DISCONTINUED'
+              AND s.quantity_on_hand <= p.reorder_threshold
+            ORDER BY p.id
+            """;
+
+    private static final String ALERTED = "SELECT product_id FROM low_stock_alert";
+
+    private static final String ADD_ALERTS = """
+            INSERT INTO low_stock_alert (product_id)
+            SELECT unnest(CAST(:ids AS BIGINT[]))
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String CLEAR_RECOVERED_ALERTS = """
+            DELETE FROM low_stock_alert
+            WHERE product_id <> ALL(CAST(:lowIds AS BIGINT[]))
+            """;
+
+    private static final String SAVE_SCAN = """
+            INSERT INTO low_stock_scan (last_movement_id, scanned_at)
+            VALUES (:lastMovementId, now())
+            ON CONFLICT (id) DO UPDATE
+                SET last_movement_id = GREATEST(low_stock_scan.last_movement_id, excluded.last_movement_id),
+                    scanned_at       = excluded.scanned_at
+            RETURNING scanned_at
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Empty when another node holds the scan lock; it does the alerting and this one reads its results
+    @Transactional
+    public Optional<Scan> scan(Duration lookBack) {
+        Boolean locked = jdbcTemplate.queryForObject(TRY_LOCK_SCAN, new MapSqlParameterSource(), Boolean.class);
+        if (!Boolean.TRUE.equals(locked)) {
+            return Optional.empty();
+        }
+        long watermark = jdbcTemplate.queryForObject(WATERMARK,
+                new MapSqlParameterSource("lookBackSeconds", lookBack.toSeconds()), Long.class);
+        // Reading on from the previous scan's watermark also covers movements that committed late in the window
+        // it left behind. The first scan ever relies on the snapshot index for anything older than the look-back.
+        long afterMovementId = jdbcTemplate.query(LAST_SCAN,
+                rs -> rs.next() ? Math.min(rs.getLong("last_movement_id"), watermark) : watermark);
+
+        List<Long> candidates = jdbcTemplate.queryForList(CANDIDATES,
+                new MapSqlParameterSource("afterMovementId", afterMovementId), Long.class);
+        List<LowStockProduct> lowStock = findLowStock(candidates);
+        Set<Long> alerted = Set.copyOf(jdbcTemplate.queryForList(ALERTED, new MapSqlParameterSource(), Long.class));
+        List<LowStockProduct> newlyLow = lowStock.stream()
+                .filter(product -> !alerted.contains(product.id()))
+                .toList();
+
+        jdbcTemplate.update(ADD_ALERTS, new MapSqlParameterSource("ids", ids(newlyLow)));
+        jdbcTemplate.update(CLEAR_RECOVERED_ALERTS, new MapSqlParameterSource("lowIds", ids(lowStock)));
+        OffsetDateTime scannedAt = jdbcTemplate.queryForObject(SAVE_SCAN,
+                new MapSqlParameterSource("lastMovementId", watermark), OffsetDateTime.class);
+        return Optional.of(new Scan(scannedAt.toInstant(), lowStock, newlyLow));
+    }
+
+    // What the last scan, on whichever node, found low, with the quantities as they are now
+    @Transactional(readOnly = true)
+    public LowStockReport findReport() {
+        Instant scannedAt = jdbcTemplate.query(LAST_SCAN,
+                rs -> rs.next() ? rs.getObject("scanned_at", OffsetDateTime.class).toInstant() : null);
+        List<Long> alerted = jdbcTemplate.queryForList(ALERTED, new MapSqlParameterSource(), Long.class);
+        return new LowStockReport(scannedAt, findLowStock(alerted));
+    }
+
+    private List<LowStockProduct> findLowStock(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(LOW_STOCK, new MapSqlParameterSource("ids", ids.toArray(Long[]::new)),
+                (rs, rowNum) -> new LowStockProduct(
+                        rs.getLong("id"),
+                        rs.getString("name"),
+                        rs.getInt("quantity_on_hand"),
+                        rs.getInt("reorder_threshold")
+                ));
+    }
+
+    private static Long[] ids(List<LowStockProduct> products) {
+        return products.stream().map(LowStockProduct::id).toArray(Long[]::new);
+    }
+
+    public record Scan(Instant scannedAt, List<LowStockProduct> lowStock, List<LowStockProduct> newlyLow) {}
+}
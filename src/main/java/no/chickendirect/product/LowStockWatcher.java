@@ -0,0 +1,81 @@
+package no.chickendirect.product;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.product.dto.LowStockProduct;
+import no.chickendirect.product.dto.LowStockReport;
+
+// Each scan looks only at products that can have changed since the previous one (see LowStockRepository).
+// Every node runs the schedule, but only the one holding the scan lock scans: it publishes the products that
+// newly fell low as one LowStockEvent and records them, so no other node or later restart alerts them again.
+// The others serve the report from what it recorded.
+@Component
+@EnableConfigurationProperties(LowStockProperties.class)
+@Slf4j
+public class LowStockWatcher {
+
+    private final LowStockRepository lowStockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LowStockProperties properties;
+    private final Counter alerts;
+    private final Timer scans;
+
+    private volatile LowStockReport report = new LowStockReport(null, List.of());
+
+    public LowStockWatcher(LowStockRepository lowStockRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry,
+                           LowStockProperties properties) {
+        this.lowStockRepository = lowStockRepository;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.alerts = Counter.builder("inventory.low_stock.alerts")
+                .description("Products that fell to or below their reorder threshold")
+                .register(meterRegistry);
+        this.scans = Timer.builder("inventory.low_stock.scan")
+                .description("Time spent finding products at or below their reorder threshold")
+                .register(meterRegistry);
+        Gauge.builder("inventory.low_stock.products", this, watcher -> watcher.report.products().size())
+                .description("Watched products at or below their reorder threshold at the last scan")
+                .register(meterRegistry);
+    }
+
+    public LowStockReport getReport() {
+        return report;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.low-stock.scan-interval:60s}")
+    public synchronized void scan() {
+        scans.record(this::runScan);
+    }
+
+    private void runScan() {
+        Optional<LowStockRepository.Scan> scan = lowStockRepository.scan(properties.lookBack());
+        if (scan.isEmpty()) {
+            report = lowStockRepository.findReport();
+            return;
+        }
+
+        List<LowStockProduct> lowStock = scan.get().lowStock();
+        List<LowStockProduct> newlyLow = scan.get().newlyLow();
+        report = new LowStockReport(scan.get().scannedAt(), lowStock);
+        // Published once the scan has committed them as alerted
+        if (!newlyLow.isEmpty()) {
+            log.info("{} products fell to or below their reorder threshold, {} are low in total",
+                    newlyLow.size(), lowStock.size());
+            alerts.increment(newlyLow.size());
+            eventPublisher.publishEvent(new LowStockEvent(newlyLow));
+        }
+    }
+}
@@ -8,9 +8,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import no.chickendirect.config.IdAllocation;
 import no.chickendirect.productstatus.ProductStatus;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
 @Data
@@ -18,10 +22,14 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "product")
+// Updates write only the columns that changed, so saving a loaded product never puts back a status the
+// stock ledger or a bulk update has changed since it was read
+@DynamicUpdate
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id_seq")
+    @SequenceGenerator(name = "product_id_seq", sequenceName = "product_id_seq", allocationSize = IdAllocation.SIZE)
     private Long id;
 
     @NotBlank
@@ -39,6 +47,29 @@ public class Product {
     private ProductStatus status;
 
     @NotNull
+    @Builder.Default
+    @Column(updatable = false)
+    private Integer stockSnapshotQuantity = 0;
+
+    @NotNull
+    @Builder.Default
+    @Column(updatable = false)
+    private Long stockSnapshotMovementId = 0L;
+
+    // Null when the product is not watched by LowStockWatcher
+    @PositiveOrZero
+    private Integer reorderThreshold;
+
+    // Set once by ProductRepository.softDeleteById; the row stays for the order items that reference it
+    @Column(updatable = false)
+    private Instant deletedAt;
+
+    // Snapshot plus every stock_movement recorded after it; changed only through StockLedgerRepository
     @PositiveOrZero
+    @Formula("""
+            stock_snapshot_quantity + (SELECT COALESCE(SUM(m.quantity_delta), 0)
+                                       FROM stock_movement m
+                                       WHERE m.product_id = id
+                                         AND m.id > stock_snapshot_movement_id)""")
     private Integer quantityOnHand;
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package no.chickendirect.product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import no.chickendirect.product.dto.ProductResponse;
+import no.chickendirect.productstatus.ProductStatus;
+
+// A suffix array over product names, cut at word starts, so "wi" and "chicken wi" both find "Spicy Chicken Wings".
+// Each entry packs (product, offset) into a long and points into one normalized copy of the name; entries are
+// sorted by tier (stock status, then whole-name before mid-name matches) and then alphabetically, so the best
+// suggestions for a prefix are the first entries of each tier's matching range.
+final class ProductAutocompleteIndex {
+
+    static final ProductAutocompleteIndex EMPTY = build(List.of());
+
+    private static final int TIERS = ProductStatus.values().length * 2;
+
+    private final ProductResponse[] products;
+    private final String[] names;
+    private final long[] entries;
+    private final int[] tierStarts;
+
+    private ProductAutocompleteIndex(ProductResponse[] products, String[] names, long[] entries, int[] tierStarts) {
+        this.products = products;
+        this.names = names;
+        this.entries = entries;
+        this.tierStarts = tierStarts;
+    }
+
+    static ProductAutocompleteIndex build(List<ProductResponse> catalog) {
+        List<ProductResponse> indexed = catalog.stream()
+                // Discontinued products stay in the catalog for lookups by id but are no longer suggested
+                .filter(product -> product.name() != null && product.status() != null
+                        && product.status() != ProductStatus.DISCONTINUED)
+                .toList();
+        ProductResponse[] products = indexed.toArray(ProductResponse[]::new);
+        String[] names = new String[products.length];
+
+        List<Entry> unsorted = new ArrayList<>();
+        for (int i = 0; i < products.length; i++) {
+            names[i] = normalize(products[i].name());
+            String name = names[i];
+            int statusTier = products[i].status().ordinal() * 2;
+            for (int offset = 0; offset < name.length(); offset++) {
+                if (offset == 0 || name.charAt(offset - 1) == ' ') {
+                    int tier = statusTier + (offset == 0 ? 0 : 1);
+                    unsorted.add(new Entry(new Key(tier, name, offset, products[i].id()), pack(i, offset)));
+                }
+            }
+        }
+
+        Entry[] sorted = unsorted.toArray(Entry[]::new);
+        Arrays.parallelSort(sorted, Comparator.comparing(Entry::key, Key.ORDER));
+        long[] entries = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            entries[i] = sorted[i].packed();
+        }
+
+        int[] tierStarts = new int[TIERS + 1];
+        int next = 0;
+        for (int tier = 0; tier <= TIERS; tier++) {
+            while (next < sorted.length && sorted[next].key().tier() < tier) {
+                next++;
+            }
+            tierStarts[tier] = next;
+        }
+        return new ProductAutocompleteIndex(products, names, entries, tierStarts);
+    }
+
+    List<ProductResponse> suggest(String prefix, int limit) {
+        return suggest(prefix, limit, id -> false, EMPTY);
+    }
+
+    // This index's suggestions, less the products hidden says are stale, merged with another index's in the
+    // order a single index built from both would give. Each side's first limit matches are all that can make it.
+    List<ProductResponse> suggest(String prefix, int limit, LongPredicate hidden, ProductAutocompleteIndex other) {
+        String query = normalize(prefix);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Match> matches = matches(query, limit, hidden);
+        if (other.size() > 0) {
+            matches.addAll(other.matches(query, limit, id -> false));
+            matches.sort(Comparator.comparing(Match::key, Key.ORDER));
+        }
+        return matches.stream()
+                .limit(limit)
+                .map(Match::product)
+                .toList();
+    }
+
+    private List<Match> matches(String query, int limit, LongPredicate hidden) {
+        List<Match> matches = new ArrayList<>(limit);
+        for (int tier = 0; tier < TIERS && matches.size() < limit; tier++) {
+            int end = tierStarts[tier + 1];
+            for (int i = lowerBound(query, tierStarts[tier], end); i < end && matches.size() < limit; i++) {
+                long entry = entries[i];
+                String name = names[product(entry)];
+                if (!name.startsWith(query, offset(entry))) {
+                    break;
+                }
+                ProductResponse product = products[product(entry)];
+                // A name can match at more than one word; limit is small, so a scan beats a set
+                if (!hidden.test(product.id())
+                        && matches.stream().noneMatch(match -> match.product() == product)) {
+                    matches.add(new Match(new Key(tier, name, offset(entry), product.id()), product));
+                }
+            }
+        }
+        return matches;
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    // First entry in [from, to) whose suffix is not below the query
+    private int lowerBound(String query, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long entry = entries[mid];
+            if (compare(names[product(entry)], offset(entry), query, 0) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static String normalize(String value) {
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = Character.toLowerCase(value.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            } else if (!normalized.isEmpty() && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        int length = normalized.length();
+        return length > 0 && normalized.charAt(length - 1) == ' '
+                ? normalized.substring(0, length - 1)
+                : normalized.toString();
+    }
+
+    private static int compare(String a, int aOffset, String b, int bOffset) {
+        int aLength = a.length() - aOffset;
+        int bLength = b.length() - bOffset;
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            int diff = a.charAt(aOffset + i) - b.charAt(bOffset + i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    private static long pack(int product, int offset) {
+        return (long) product << 32 | offset;
+    }
+
+    private static int product(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    private static int offset(long entry) {
+        return (int) entry;
+    }
+
+    // Where an entry sorts: by tier, then alphabetically from the offset, then by product id
+    private record Key(int tier, String name, int offset, long id) {
+
+        static final Comparator<Key> ORDER = Comparator.comparingInt(Key::tier)
+                .thenComparing((a, b) -> compare(a.name(), a.offset(), b.name(), b.offset()))
+                .thenComparingLong(Key::id);
+    }
+
+    // Build-time only: carries what the comparator needs so sorting does not chase the packed indexes
+    private record Entry(Key key, long packed) {}
+
+    private record Match(Key key, ProductResponse product) {}
+}
@@ -0,0 +1,14 @@
+package no.chickendirect.product;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import no.chickendirect.product.dto.ProductFilter;
+import no.chickendirect.productstatus.ProductStatus;
+
+public interface ProductBulkRepository {
+
+    List<Long> adjustPriceMatching(ProductFilter filter, BigDecimal percentChange, BigDecimal amountChange);
+
+    List<Long> updateStatusMatching(ProductFilter filter, ProductStatus status);
+}
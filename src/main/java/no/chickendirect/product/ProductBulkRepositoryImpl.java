@@ -0,0 +1,76 @@
+package no.chickendirect.product;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+import no.chickendirect.product.dto.ProductFilter;
+import no.chickendirect.productstatus.ProductStatus;
+
+@RequiredArgsConstructor
+class ProductBulkRepositoryImpl implements ProductBulkRepository {
+
+    // Rounded to the column's scale and never below zero; repeated in WHERE so unchanged rows are not rewritten
+    private static final String ADJUSTED_PRICE = """
+            GREATEST(ROUND(price * (100 + CAST(:percentChange AS NUMERIC)) / 100
+                           + CAST(:amountChange AS NUMERIC), 2), 0)""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> adjustPriceMatching(ProductFilter filter, BigDecimal percentChange, BigDecimal amountChange) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("percentChange", percentChange != null ? percentChange : BigDecimal.ZERO)
+                .addValue("amountChange", amountChange != null ? amountChange : BigDecimal.ZERO);
+        StringBuilder sql = new StringBuilder("""
+                UPDATE product
+                SET price = %1$s
+                WHERE price <> %1$s
+                """.formatted(ADJUSTED_PRICE));
+        return updateMatching(sql, params, filter);
+    }
+
+    @Override
+    public List<Long> updateStatusMatching(ProductFilter filter, ProductStatus status) {
+        MapSqlParameterSource params = new MapSqlParameterSource("status", status.name());
+        StringBuilder sql = new StringBuilder("""
+                UPDATE product
+                SET status = :status
+                WHERE status <> :status
+                """);
+        return updateMatching(sql, params, filter);
+    }
+
+    private List<Long> updateMatching(StringBuilder sql, MapSqlParameterSource params, ProductFilter filter) {
+        sql.append(" AND deleted_at IS NULL");
+        if (filter.status() != null) {
+            sql.append(" AND status = :filterStatus");
+            params.addValue("filterStatus", filter.status().name());
+        }
+        if (filter.namePrefix() != null && !filter.namePrefix().isBlank()) {
+            sql.append(" AND lower(name) LIKE :namePrefix");
+            params.addValue("namePrefix", escapeLike(filter.namePrefix().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (filter.minPrice() != null) {
+            sql.append(" AND price >= :minPrice");
+            params.addValue("minPrice", filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            sql.append(" AND price <= :maxPrice");
+            params.addValue("maxPrice", filter.maxPrice());
+        }
+        sql.append(" RETURNING id");
+
+        return jdbcTemplate.queryForList(sql.toString(), params, Long.class).stream()
+                .sorted()
+                .toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,302 @@
+package no.chickendirect.product;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.cache.CacheInvalidatedEvent;
+import no.chickendirect.cache.CacheTopic;
+import no.chickendirect.product.dto.ProductResponse;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+// Readers only ever dereference the current snapshot, so they need no lock and no database connection.
+// A snapshot is a base built from the whole catalog plus the products changed since, so a write reloads only
+// its own rows. Once more than maxPendingChanges have piled up, or another node changed an unknown set of
+// products, one full rebuild is queued on the catalog's own thread; requests and the invalidation listener
+// never wait for one.
+@Component
+@EnableConfigurationProperties(ProductCatalogProperties.class)
+@Slf4j
+public class ProductCatalog {
+
+    private final ProductRepository productRepository;
+    private final ProductCatalogProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("product-catalog").daemon().factory());
+    // Work queued for the worker: ids other nodes changed, or a full rebuild, which covers them all
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    // Taken before each load reads the database, so of two loads of the same product the later one wins
+    private final AtomicLong marks = new AtomicLong();
+    private final Object rebuildLock = new Object();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public ProductCatalog(ProductRepository productRepository,
+                          ProductCatalogProperties properties,
+                          PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.properties = properties;
+        // A new transaction, because refreshes run from afterCommit while the committed one is still bound
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public ProductResponse find(Long id) {
+        return snapshot.find(id);
+    }
+
+    public List<ProductResponse> findAll() {
+        return snapshot.products();
+    }
+
+    public List<ProductResponse> suggest(String prefix, int limit) {
+        return snapshot.suggest(prefix, limit);
+    }
+
+    public long version() {
+        return snapshot.version();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long mark = marks.incrementAndGet();
+            List<ProductResponse> products = readOnlyTransaction.execute(status ->
+                    productRepository.findAllByDeletedAtIsNull(Sort.by("id")).stream()
+                            .map(ProductCatalog::toResponse)
+                            .toList());
+            Base base = Base.of(mark, products);
+            Snapshot next = publish(current -> current.rebase(base));
+            log.debug("Published product catalog version {} with {} products and {} autocomplete entries",
+                    next.version(), products.size(), base.autocomplete().size());
+        }
+    }
+
+    // Reloads just these products; deleted ones leave the catalog. Called once the change has committed.
+    public void refresh(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (ids.size() > properties.maxPendingChanges()) {
+            requestRebuild();
+            return;
+        }
+        long mark = marks.incrementAndGet();
+        Map<Long, ProductResponse> loaded = readOnlyTransaction.execute(status ->
+                productRepository.findAllByIdInAndDeletedAtIsNull(ids).stream()
+                        .collect(Collectors.toMap(Product::getId, ProductCatalog::toResponse)));
+        Snapshot next = publish(current -> current.apply(ids, loaded, mark));
+        if (next.pendingChanges() > properties.maxPendingChanges()) {
+            requestRebuild();
+        }
+    }
+
+    public void requestRebuild() {
+        rebuildRequested.set(true);
+        scheduleDrain();
+    }
+
+    // Runs on the listener thread, which every cache topic shares, so the database is only read on the worker
+    @EventListener
+    public void onInvalidation(CacheInvalidatedEvent event) {
+        if (event.topic() != CacheTopic.PRODUCT) {
+            return;
+        }
+        if (event.id() == null) {
+            requestRebuild();
+        } else {
+            pendingIds.add(event.id());
+            scheduleDrain();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    static ProductResponse toResponse(Product product) {
+        return new ProductResponse(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getStatus(),
+                product.getQuantityOnHand()
+        );
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    // Everything queued by the time the worker gets to it is handled in one go, so a burst of
+    // invalidations costs one load, and any number of rebuild requests costs one rebuild
+    private void drain() {
+        drainScheduled.set(false);
+        try {
+            if (rebuildRequested.getAndSet(false)) {
+                // The ids were all committed before they were queued, so the rebuild reads them anyway
+                pendingIds.clear();
+                rebuild();
+                return;
+            }
+            List<Long> ids = new ArrayList<>(pendingIds);
+            pendingIds.removeAll(ids);
+            refresh(ids);
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh the product catalog", e);
+        }
+    }
+
+    private synchronized Snapshot publish(UnaryOperator<Snapshot> change) {
+        snapshot = change.apply(snapshot);
+        return snapshot;
+    }
+
+    // Built from the whole catalog. products must be sorted by id. Ids have gaps (pooled allocation,
+    // deletes, imports), so find binary-searches a parallel primitive array instead of indexing by id.
+    private record Base(long mark, long[] ids, List<ProductResponse> products, ProductAutocompleteIndex autocomplete) {
+
+        static final Base EMPTY = new Base(0, new long[0], List.of(), ProductAutocompleteIndex.EMPTY);
+
+        static Base of(long mark, List<ProductResponse> products) {
+            long[] ids = products.stream().mapToLong(ProductResponse::id).toArray();
+            // Built from the same product list, so suggestions never disagree with find and findAll
+            return new Base(mark, ids, products, ProductAutocompleteIndex.build(products));
+        }
+
+        ProductResponse find(Long id) {
+            int index = Arrays.binarySearch(ids, id);
+            return index >= 0 ? products.get(index) : null;
+        }
+    }
+
+    // A product as loaded after it changed; null once it was deleted
+    private record Change(ProductResponse product, long mark) {}
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, Base.EMPTY, Map.of());
+
+        private final long version;
+        private final Base base;
+        private final Map<Long, Change> changes;
+        // Indexes only the changed products; the base's entries for them are skipped
+        private final ProductAutocompleteIndex changedAutocomplete;
+        // Merged on first use, which for most snapshots is never
+        private volatile List<ProductResponse> products;
+
+        Snapshot(long version, Base base, Map<Long, Change> changes) {
+            this.version = version;
+            this.base = base;
+            this.changes = changes;
+            this.changedAutocomplete = changes.isEmpty()
+                    ? ProductAutocompleteIndex.EMPTY
+                    : ProductAutocompleteIndex.build(changes.values().stream()
+                            .map(Change::product)
+                            .filter(Objects::nonNull)
+                            .toList());
+        }
+
+        long version() {
+            return version;
+        }
+
+        int pendingChanges() {
+            return changes.size();
+        }
+
+        // A load older than the base, or than a load of the same product already applied, is stale
+        Snapshot apply(Collection<Long> ids, Map<Long, ProductResponse> loaded, long mark) {
+            if (mark < base.mark()) {
+                return this;
+            }
+            Map<Long, Change> next = new HashMap<>(changes);
+            for (Long id : ids) {
+                Change current = next.get(id);
+                if (current == null || current.mark() < mark) {
+                    next.put(id, new Change(loaded.get(id), mark));
+                }
+            }
+            return new Snapshot(version + 1, base, Map.copyOf(next));
+        }
+
+        // Loads that started after the rebuild did may have seen later commits than it, so they are kept
+        Snapshot rebase(Base next) {
+            Map<Long, Change> newer = changes.entrySet().stream()
+                    .filter(entry -> entry.getValue().mark() > next.mark())
+                    .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+            return new Snapshot(version + 1, next, newer);
+        }
+
+        ProductResponse find(Long id) {
+            Change change = changes.get(id);
+            return change != null ? change.product() : base.find(id);
+        }
+
+        List<ProductResponse> suggest(String prefix, int limit) {
+            return changes.isEmpty()
+                    ? base.autocomplete().suggest(prefix, limit)
+                    : base.autocomplete().suggest(prefix, limit, changes::containsKey, changedAutocomplete);
+        }
+
+        List<ProductResponse> products() {
+            List<ProductResponse> merged = products;
+            if (merged == null) {
+                merged = changes.isEmpty() ? base.products() : merge();
+                products = merged;
+            }
+            return merged;
+        }
+
+        private List<ProductResponse> merge() {
+            List<ProductResponse> changed = changes.values().stream()
+                    .map(Change::product)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(ProductResponse::id))
+                    .toList();
+            List<ProductResponse> merged = new ArrayList<>(base.products().size() + changed.size());
+            int next = 0;
+            for (ProductResponse product : base.products()) {
+                while (next < changed.size() && changed.get(next).id() < product.id()) {
+                    merged.add(changed.get(next++));
+                }
+                if (!changes.containsKey(product.id())) {
+                    merged.add(product);
+                }
+            }
+            merged.addAll(changed.subList(next, changed.size()));
+            return List.copyOf(merged);
+        }
+    }
+}
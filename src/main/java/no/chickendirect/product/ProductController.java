@@ -1,23 +1,39 @@
 package no.chickendirect.product;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import no.chickendirect.export.ExportFormat;
+import no.chickendirect.product.dto.LowStockReport;
+import no.chickendirect.product.dto.ProductBulkUpdateRequest;
+import no.chickendirect.product.dto.ProductBulkUpdateResponse;
+import no.chickendirect.product.dto.ProductImportResponse;
+import no.chickendirect.product.dto.ProductListCriteria;
+import no.chickendirect.product.dto.ProductListResponse;
+import no.chickendirect.product.dto.ProductPageResponse;
 import no.chickendirect.product.dto.ProductRequest;
 import no.chickendirect.product.dto.ProductResponse;
+import no.chickendirect.product.dto.ProductSuggestionResponse;
 import no.chickendirect.product.dto.ProductUpdateRequest;
+import no.chickendirect.product.dto.ReorderThresholdRequest;
+import no.chickendirect.product.dto.RestockRequest;
 
 @RestController
 @RequestMapping("api/products")
@@ -32,6 +48,50 @@ public class ProductController {
         return productService.createProduct(request);
     }
 
+    // The body is read as a stream, one row at a time, instead of being bound up front
+    @PostMapping("import")
+    public ProductImportResponse importProducts(
+            @RequestParam(defaultValue = "csv") ExportFormat format,
+            HttpServletRequest request
+    ) throws IOException {
+        return productService.importProducts(format, request.getInputStream());
+    }
+
+    @GetMapping("listing")
+    public ProductListResponse listProducts(
+            @ModelAttribute ProductListCriteria criteria,
+            @RequestParam(defaultValue = "price_asc") ProductSort sort,
+            @RequestParam(required = false) Set<ProductField> fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return productService.listProducts(criteria, sort, fields, cursor, size);
+    }
+
+    @GetMapping("autocomplete")
+    public List<ProductSuggestionResponse> suggestProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return productService.suggestProducts(q, limit);
+    }
+
+    @GetMapping("search")
+    public ProductPageResponse searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "en") SearchLanguage lang,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return productService.searchProducts(q, lang, cursor, size);
+    }
+
+    // The latest scan's result; reading it never touches the database
+    @GetMapping("low-stock")
+    public LowStockReport getLowStockReport() {
+        return productService.getLowStockReport();
+    }
+
     @GetMapping("{id}")
     public ProductResponse getProduct(@PathVariable Long id) {
         return productService.getProduct(id);
@@ -47,6 +107,23 @@ public class ProductController {
         return productService.updateProduct(id, request);
     }
 
+    @PutMapping("{id}/reorder-threshold")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void updateReorderThreshold(@PathVariable Long id, @Valid @RequestBody ReorderThresholdRequest request) {
+        productService.updateReorderThreshold(id, request);
+    }
+
+    @PostMapping("{id}/restock")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void restockProduct(@PathVariable Long id, @Valid @RequestBody RestockRequest request) {
+        productService.restock(id, request);
+    }
+
+    @PostMapping("bulk-update")
+    public ProductBulkUpdateResponse bulkUpdateProducts(@Valid @RequestBody ProductBulkUpdateRequest request) {
+        return productService.bulkUpdateProducts(request);
+    }
+
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteProduct(@PathVariable Long id) {
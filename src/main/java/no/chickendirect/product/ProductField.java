@@ -0,0 +1,25 @@
+package no.chickendirect.product;
+
+// Optional columns of a product listing; id is always returned
+public enum ProductField {
+    NAME("name"),
+    DESCRIPTION("description"),
+    PRICE("price"),
+    STATUS("status"),
+    QUANTITY_ON_HAND("quantityOnHand");
+
+    private final String param;
+
+    ProductField(String param) {
+        this.param = param;
+    }
+
+    public static ProductField fromParam(String param) {
+        for (ProductField field : values()) {
+            if (field.param.equalsIgnoreCase(param.trim())) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown product field: " + param);
+    }
+}
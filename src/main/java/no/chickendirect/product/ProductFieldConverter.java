@@ -0,0 +1,13 @@
+package no.chickendirect.product;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductFieldConverter implements Converter<String, ProductField> {
+
+    @Override
+    public ProductField convert(String source) {
+        return ProductField.fromParam(source);
+    }
+}
@@ -0,0 +1,173 @@
+package no.chickendirect.product;
+
+import lombok.RequiredArgsConstructor;
+import no.chickendirect.product.dto.ProductRequest;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+// Validated rows are streamed with COPY into a transaction-scoped staging table, then moved into product
+// and the stock ledger with a few set-based statements instead of one insert per row.
+@Repository
+@RequiredArgsConstructor
+public class ProductImportRepository {
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE product_import
+            (
+                row_number  BIGINT         NOT NULL,
+                name        VARCHAR(255)   NOT NULL,
+                description TEXT           NOT NULL,
+                price       NUMERIC(19, 2) NOT NULL,
+                status      VARCHAR(50)    NOT NULL,
+                quantity    INTEGER        NOT NULL,
+                product_id  BIGINT
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_STAGING = """
+            COPY product_import (row_number, name, description, price, status, quantity)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    // Ids are taken a whole pooled block per nextval, the same way Hibernate allocates them,
+    // so imported products stay as densely numbered as ones created through the API. The block
+    // size is the sequence's own increment, so it cannot drift from what the migrations set.
+    private static final String ASSIGN_IDS = """
+            WITH allocation AS (
+                SELECT increment_by AS size
+                FROM pg_sequences
+                WHERE schemaname = current_schema()
+                  AND sequencename = 'product_id_seq'
+            ), positioned AS (
+                SELECT row_number, row_number() OVER (ORDER BY row_number) - 1 AS position
+                FROM product_import
+            ), blocks AS (
+                SELECT block, nextval('product_id_seq') AS hi
+                FROM generate_series(0, (SELECT (COUNT(*) - 1) / (SELECT size FROM allocation)
+                                         FROM product_import)) AS block
+            )
+            UPDATE product_import s
+            SET product_id = b.hi - a.size + 1 + p.position % a.size
+            FROM positioned p
+            CROSS JOIN allocation a
+            JOIN blocks b ON b.block = p.position / a.size
+            WHERE s.row_number = p.row_number
+            """;
+
+    private static final String MERGE_PRODUCTS = """
+            INSERT INTO product (id, name, description, price, status, stock_snapshot_quantity)
+            SELECT product_id, name, description, price, status, 0
+            FROM product_import
+            ORDER BY product_id
+            RETURNING id
+            """;
+
+    private static final String RECORD_RECEIPTS = """
+            INSERT INTO stock_movement (product_id, movement_type, quantity_delta)
+            SELECT product_id, 'RECEIPT', quantity
+            FROM product_import
+            WHERE quantity > 0
+            ORDER BY product_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Staging openStaging() {
+        jdbcTemplate.getJdbcTemplate().execute(CREATE_STAGING);
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            return new Staging(new PGCopyOutputStream(copyManager.copyIn(COPY_STAGING), 64 * 1024));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not start COPY into product_import", e);
+        }
+    }
+
+    public class Staging implements AutoCloseable {
+
+        private final PGCopyOutputStream copy;
+        private final Writer writer;
+        private int rows;
+        private boolean finished;
+
+        private Staging(PGCopyOutputStream copy) {
+            this.copy = copy;
+            this.writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        public void add(long rowNumber, ProductRequest product) {
+            try {
+                writer.write(Long.toString(rowNumber));
+                writer.write(',');
+                writeText(product.name());
+                writer.write(',');
+                writeText(product.description());
+                writer.write(',');
+                writer.write(product.price().toPlainString());
+                writer.write(',');
+                writer.write(product.status().name());
+                writer.write(',');
+                writer.write(Integer.toString(product.quantityOnHand() != null ? product.quantityOnHand() : 0));
+                writer.write('\n');
+                rows++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Ends the COPY and merges everything staged; returns the ids of the products created
+        public List<Long> finish() {
+            try {
+                writer.flush();
+                copy.endCopy();
+            } catch (IOException | SQLException e) {
+                throw new IllegalStateException("COPY into product_import failed", e);
+            }
+            finished = true;
+            if (rows == 0) {
+                return List.of();
+            }
+            jdbcTemplate.getJdbcTemplate().update(ASSIGN_IDS);
+            List<Long> merged = jdbcTemplate.getJdbcTemplate().queryForList(MERGE_PRODUCTS, Long.class);
+            jdbcTemplate.getJdbcTemplate().update(RECORD_RECEIPTS);
+            return merged;
+        }
+
+        @Override
+        public void close() {
+            if (!finished && copy.isActive()) {
+                try {
+                    copy.cancelCopy();
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not cancel COPY into product_import", e);
+                }
+            }
+        }
+
+        // Always quoted, so empty strings stay distinct from NULL and embedded commas and newlines survive
+        private void writeText(String text) throws IOException {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package no.chickendirect.product;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import no.chickendirect.exception.InvalidCursorException;
+
+// Carries the sort it was issued for, so a cursor from a price listing cannot be replayed against a name listing.
+// value is the sort column's value, already typed for binding: a BigDecimal price or a String name.
+public record ProductListCursor(ProductSort sort, Object value, Long id) {
+
+    // price is NUMERIC(19, 2); anything wider could not have come from a listing and would fail in the query
+    private static final int MAX_PRICE_SCALE = 2;
+    private static final int MAX_PRICE_INTEGER_DIGITS = 17;
+
+    public static ProductListCursor decode(String cursor, ProductSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf('|');
+            int last = raw.lastIndexOf('|');
+            if (first < 0 || first == last) {
+                throw new InvalidCursorException(cursor);
+            }
+            ProductSort sort = ProductSort.valueOf(raw.substring(0, first));
+            if (sort != expectedSort) {
+                throw new InvalidCursorException(cursor);
+            }
+            String value = raw.substring(first + 1, last);
+            return new ProductListCursor(sort, sort.column().equals("price") ? parsePrice(value, cursor) : value,
+                    Long.valueOf(raw.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = sort + "|" + (value instanceof BigDecimal price ? price.toPlainString() : value) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BigDecimal parsePrice(String value, String cursor) {
+        BigDecimal price = new BigDecimal(value);
+        if (price.scale() > MAX_PRICE_SCALE || price.precision() - price.scale() > MAX_PRICE_INTEGER_DIGITS) {
+            throw new InvalidCursorException(cursor);
+        }
+        return price;
+    }
+}
@@ -0,0 +1,104 @@
+package no.chickendirect.product;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import no.chickendirect.product.dto.ProductListCriteria;
+import no.chickendirect.product.dto.ProductListItem;
+import no.chickendirect.productstatus.ProductStatus;
+
+@Repository
+@RequiredArgsConstructor
+public class ProductListRepository {
+
+    // Stock is summed from the ledger only for rows that survive the index filters, and only when asked for
+    private static final String STOCK_JOIN = """
+             CROSS JOIN LATERAL (SELECT quantity_on_hand
+                                 FROM product_stock
+                                 WHERE product_id = p.id) s
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<Row> findPage(ProductListCriteria criteria, ProductSort sort, Set<ProductField> fields,
+                              ProductListCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        String sortColumn = "p." + sort.column();
+
+        // Only the requested columns are read, so a view that skips description can stay inside the index
+        StringBuilder sql = new StringBuilder("SELECT p.id, ").append(sortColumn).append(" AS sort_value");
+        if (fields.contains(ProductField.NAME)) {
+            sql.append(", p.name");
+        }
+        if (fields.contains(ProductField.DESCRIPTION)) {
+            sql.append(", p.description");
+        }
+        if (fields.contains(ProductField.PRICE)) {
+            sql.append(", p.price");
+        }
+        if (fields.contains(ProductField.STATUS)) {
+            sql.append(", p.status");
+        }
+        boolean needsStock = fields.contains(ProductField.QUANTITY_ON_HAND) || criteria.inStockOnly();
+        if (needsStock) {
+            sql.append(", s.quantity_on_hand");
+        }
+        sql.append(" FROM product p");
+        if (needsStock) {
+            sql.append(STOCK_JOIN);
+        }
+
+        // Listings browse the active catalog only, which is what the partial indexes cover
+        List<String> conditions = new ArrayList<>(List.of("p.deleted_at IS NULL", "p.status <> 'DISCONTINUED'"));
+        if (criteria.status() != null) {
+            conditions.add("p.status = :status");
+            params.addValue("status", criteria.status().name());
+        }
+        if (criteria.minPrice() != null) {
+            conditions.add("p.price >= :minPrice");
+            params.addValue("minPrice", criteria.minPrice());
+        }
+        if (criteria.maxPrice() != null) {
+            conditions.add("p.price <= :maxPrice");
+            params.addValue("maxPrice", criteria.maxPrice());
+        }
+        if (criteria.inStockOnly()) {
+            conditions.add("p.status = 'IN_STOCK' AND s.quantity_on_hand > 0");
+        }
+        if (after != null) {
+            conditions.add("(" + sortColumn + ", p.id) " + (sort.descending() ? "<" : ">") + " (:afterValue, :afterId)");
+            params.addValue("afterValue", after.value());
+            params.addValue("afterId", after.id());
+        }
+        sql.append(" WHERE ").append(String.join(" AND ", conditions));
+
+        String direction = sort.descending() ? " DESC" : "";
+        sql.append(" ORDER BY ").append(sortColumn).append(direction).append(", p.id").append(direction);
+        sql.append(" LIMIT :limit");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> toRow(rs, sort, fields));
+    }
+
+    private static Row toRow(ResultSet rs, ProductSort sort, Set<ProductField> fields) throws SQLException {
+        long id = rs.getLong("id");
+        ProductListItem item = new ProductListItem(
+                id,
+                fields.contains(ProductField.NAME) ? rs.getString("name") : null,
+                fields.contains(ProductField.DESCRIPTION) ? rs.getString("description") : null,
+                fields.contains(ProductField.PRICE) ? rs.getBigDecimal("price") : null,
+                fields.contains(ProductField.STATUS) ? ProductStatus.valueOf(rs.getString("status")) : null,
+                fields.contains(ProductField.QUANTITY_ON_HAND) ? rs.getObject("quantity_on_hand", Integer.class) : null
+        );
+        return new Row(item, new ProductListCursor(sort, rs.getObject("sort_value"), id));
+    }
+
+    public record Row(ProductListItem item, ProductListCursor position) {}
+}
@@ -1,6 +1,31 @@
 package no.chickendirect.product;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductBulkRepository {
+
+    Optional<Product> findByIdAndDeletedAtIsNull(Long id);
+
+    List<Product> findAllByIdInAndDeletedAtIsNull(Collection<Long> ids);
+
+    List<Product> findAllByDeletedAtIsNull(Sort sort);
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+    // Deleted products are also discontinued, so they drop out of the partial catalog indexes with either check
+    @Modifying
+    @Query(value = """
+            UPDATE product
+            SET deleted_at = now(),
+                status = 'DISCONTINUED'
+            WHERE id = :id
+              AND deleted_at IS NULL
+            """, nativeQuery = true)
+    int softDeleteById(@Param("id") Long id);
 }
@@ -0,0 +1,31 @@
+package no.chickendirect.product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import no.chickendirect.exception.InvalidCursorException;
+
+// Position in a ranked result: rank is the float4 Postgres returned, so it compares exactly on the next page
+public record ProductSearchCursor(float rank, Long id) {
+
+    public static ProductSearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new ProductSearchCursor(
+                    Float.parseFloat(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = rank + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
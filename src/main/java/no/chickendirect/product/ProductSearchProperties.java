@@ -0,0 +1,9 @@
+package no.chickendirect.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "products.search")
+public record ProductSearchProperties(
+        @DefaultValue("1000") int maxRankedMatches
+) {}
@@ -0,0 +1,106 @@
+package no.chickendirect.product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+@Repository
+@EnableConfigurationProperties(ProductSearchProperties.class)
+@RequiredArgsConstructor
+public class ProductSearchRepository {
+
+    // Only maxRankedMatches matches are ranked: ts_rank has to read every candidate's row, so a word found in
+    // half the catalog would otherwise cost a heap visit each. Candidates come in two tiers, each cut off by a
+    // limit rather than sorted: name matches first (the name-only vector), then, if they leave room, the other
+    // matches. Neither tier has an ORDER BY, so a broad term is read until the limit fills and a narrow one is
+    // looked up in the GIN index, and the one candidate more than is ranked tells whether any were left out.
+    // The tiers spell the query out rather than reading it from q: the planner needs it as a constant to tell a
+    // broad term from a narrow one. That is also why the dictionary is written into the statement; it comes
+    // from SearchLanguage, never from the request.
+    // websearch_to_tsquery accepts raw user input ("wings -spicy", "\"whole chicken\"") and never fails to parse.
+    // Only active products are searched; the predicate matches the partial GIN indexes so they can be used.
+    private static final String SEARCH = """
+            WITH q AS (
+                SELECT websearch_to_tsquery('%1$s', :query) AS query
+            ), in_name AS MATERIALIZED (
+                SELECT p.id, p.%2$s AS search
+                FROM product p
+                WHERE p.%3$s @@ websearch_to_tsquery('%1$s', :query)
+                  AND p.%2$s @@ websearch_to_tsquery('%1$s', :query)
+                  AND p.deleted_at IS NULL
+                  AND p.status <> 'DISCONTINUED'
+                LIMIT :maxRankedMatches + 1
+            ), elsewhere AS MATERIALIZED (
+                SELECT p.id, p.%2$s AS search
+                FROM product p
+                WHERE p.%2$s @@ websearch_to_tsquery('%1$s', :query)
+                  AND NOT p.%3$s @@ websearch_to_tsquery('%1$s', :query)
+                  AND p.deleted_at IS NULL
+                  AND p.status <> 'DISCONTINUED'
+                LIMIT GREATEST(:maxRankedMatches + 1 - (SELECT COUNT(*) FROM in_name), 0)
+            ), candidates AS (
+                SELECT id, search, TRUE AS in_name FROM in_name
+                UNION ALL
+                SELECT id, search, FALSE FROM elsewhere
+            ), ranked AS (
+                SELECT c.id, ts_rank(c.search, q.query) AS rank
+                FROM (SELECT id, search
+                      FROM candidates
+                      ORDER BY in_name DESC, id
+                      LIMIT :maxRankedMatches) c, q
+            )
+            SELECT id, rank, (SELECT COUNT(*) FROM candidates) > :maxRankedMatches AS truncated
+            FROM ranked
+            %4$s
+            ORDER BY rank DESC, id
+            LIMIT :limit
+            """;
+
+    private static final String AFTER = """
+            WHERE rank < :afterRank
+               OR (rank = :afterRank AND id > :afterId)
+            """;
+
+    // A generic plan, which the driver's server-side prepared statement settles on after a few executions,
+    // knows nothing of the query and reads every match of a broad term from the index. A sequential scan that
+    // joined another one halfway through the table would pick other candidates for the next page.
+    private static final String SEARCH_SETTINGS = """
+            SELECT set_config('plan_cache_mode', 'force_custom_plan', true),
+                   set_config('synchronize_seqscans', 'off', true)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ProductSearchProperties properties;
+
+    @Transactional(readOnly = true)
+    public ProductSearchResult search(SearchLanguage language, String query, ProductSearchCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("maxRankedMatches", properties.maxRankedMatches())
+                .addValue("limit", limit);
+        if (after != null) {
+            params.addValue("afterRank", after.rank())
+                    .addValue("afterId", after.id());
+        }
+        jdbcTemplate.getJdbcTemplate().execute(SEARCH_SETTINGS);
+        String sql = SEARCH.formatted(language.textSearchConfig(), language.searchColumn(), language.nameSearchColumn(),
+                after != null ? AFTER : "");
+
+        return jdbcTemplate.query(sql, params, rs -> {
+            List<ProductSearchCursor> hits = new ArrayList<>();
+            boolean truncated = false;
+            while (rs.next()) {
+                hits.add(new ProductSearchCursor(rs.getFloat("rank"), rs.getLong("id")));
+                truncated = rs.getBoolean("truncated");
+            }
+            return new ProductSearchResult(hits, truncated);
+        });
+    }
+}
@@ -0,0 +1,6 @@
+package no.chickendirect.product;
+
+import java.util.List;
+
+// truncated: the query matched more products than are ranked, so lower-relevance matches were left out
+public record ProductSearchResult(List<ProductSearchCursor> hits, boolean truncated) {}
@@ -1,16 +1,52 @@
 package no.chickendirect.product;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.cache.CacheTopic;
+import no.chickendirect.cache.InvalidationBus;
+import no.chickendirect.exception.InsufficientStockException;
 import no.chickendirect.exception.ProductNotFoundException;
+import no.chickendirect.export.ExportFormat;
+import no.chickendirect.export.RowFormatException;
+import no.chickendirect.export.RowReader;
+import no.chickendirect.product.dto.LowStockReport;
+import no.chickendirect.product.dto.ProductBulkUpdateRequest;
+import no.chickendirect.product.dto.ProductBulkUpdateResponse;
+import no.chickendirect.product.dto.ProductImportReject;
+import no.chickendirect.product.dto.ProductImportResponse;
+import no.chickendirect.product.dto.ProductListCriteria;
+import no.chickendirect.product.dto.ProductListResponse;
+import no.chickendirect.product.dto.ProductPageResponse;
 import no.chickendirect.product.dto.ProductRequest;
 import no.chickendirect.product.dto.ProductResponse;
+import no.chickendirect.product.dto.ProductSuggestionResponse;
 import no.chickendirect.product.dto.ProductUpdateRequest;
+import no.chickendirect.product.dto.ReorderThresholdRequest;
+import no.chickendirect.product.dto.RestockRequest;
+import no.chickendirect.productstatus.ProductStatus;
 
 @Service
 @RequiredArgsConstructor
@@ -18,13 +54,77 @@ import no.chickendirect.product.dto.ProductUpdateRequest;
 @Slf4j
 public class ProductService {
 
+    private static final int MAX_REPORTED_REJECTS = 1_000;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_LIST_PAGE_SIZE = 200;
+
     private final ProductRepository productRepository;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final HotInventory hotInventory;
+    private final ProductCatalog productCatalog;
+    private final InvalidationBus invalidationBus;
+    private final ProductImportRepository productImportRepository;
+    private final ProductSearchRepository productSearchRepository;
+    private final ProductListRepository productListRepository;
+    private final LowStockWatcher lowStockWatcher;
+    private final Validator validator;
+    private final EntityManager entityManager;
 
     public Product getProductEntity(Long id) {
-        return productRepository.findById(id)
+        return productRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
     }
 
+    public Map<Long, Product> getProductEntities(Collection<Long> ids) {
+        Map<Long, Product> products = productRepository.findAllByIdInAndDeletedAtIsNull(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        ids.stream()
+                .filter(id -> !products.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new ProductNotFoundException(id);
+                });
+        return products;
+    }
+
+    public void reserveStock(Long id, int quantity) {
+        if (hotInventory.tryReserve(id, quantity)) {
+            return;
+        }
+        Integer available = stockLedgerRepository.lockAvailable(id);
+        if (available == null) {
+            throw new ProductNotFoundException(id);
+        }
+        if (available < quantity) {
+            throw new InsufficientStockException(id, quantity);
+        }
+        stockLedgerRepository.append(id, StockMovementType.RESERVATION, -quantity);
+        // Published in the buyer's transaction, so other nodes hear of the status change exactly when it commits
+        if (available == quantity && stockLedgerRepository.markOutOfStockIfEmpty(id)) {
+            refreshCatalogAfterCommit(List.of(id));
+            invalidationBus.publish(CacheTopic.PRODUCT, id);
+        }
+    }
+
+    // Units an unshipped order no longer holds go back to the ledger, not to any hot counter
+    public void releaseStock(Long id, int quantity) {
+        stockLedgerRepository.append(id, StockMovementType.CANCELLATION, quantity);
+        if (stockLedgerRepository.markInStockIfAvailable(id)) {
+            refreshCatalogAfterCommit(List.of(id));
+            invalidationBus.publish(CacheTopic.PRODUCT, id);
+        }
+    }
+
+    public void restock(Long id, RestockRequest request) {
+        log.info("Restocking product with id={} by {} units", id, request.quantity());
+        Product product = getProductEntity(id);
+        stockLedgerRepository.append(product.getId(), StockMovementType.RESTOCK, request.quantity());
+        stockLedgerRepository.markInStockIfAvailable(product.getId());
+        refreshCatalogAfterCommit(List.of(id));
+        invalidationBus.publish(CacheTopic.PRODUCT, id);
+    }
+
     public ProductResponse createProduct(ProductRequest request) {
         log.info("Creating product with name={}", request.name());
         Product product = Product.builder()
@@ -32,24 +132,80 @@ public class ProductService {
                 .description(request.description())
                 .price(request.price())
                 .status(request.status())
-                .quantityOnHand(request.quantityOnHand())
+                .quantityOnHand(request.quantityOnHand() != null ? request.quantityOnHand() : 0)
                 .build();
 
-        Product saved = productRepository.save(product);
+        Product saved = productRepository.saveAndFlush(product);
+        if (request.quantityOnHand() != null && request.quantityOnHand() > 0) {
+            stockLedgerRepository.append(saved.getId(), StockMovementType.RECEIPT, request.quantityOnHand());
+        }
+        refreshCatalogAfterCommit(List.of(saved.getId()));
+        invalidationBus.publish(CacheTopic.PRODUCT, saved.getId());
         return toProductResponse(saved);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ProductResponse getProduct(Long id) {
-        Product product = getProductEntity(id);
-        return toProductResponse(product);
+        ProductResponse product = productCatalog.find(id);
+        if (product == null) {
+            throw new ProductNotFoundException(id);
+        }
+        return product;
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::toProductResponse)
+        return productCatalog.findAll();
+    }
+
+    @Transactional(readOnly = true)
+    public ProductListResponse listProducts(ProductListCriteria criteria, ProductSort sort, Set<ProductField> fields,
+                                            String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_LIST_PAGE_SIZE);
+        Set<ProductField> selected = fields == null || fields.isEmpty()
+                ? EnumSet.allOf(ProductField.class)
+                : EnumSet.copyOf(fields);
+        ProductListCursor after = cursor == null || cursor.isBlank() ? null : ProductListCursor.decode(cursor, sort);
+
+        List<ProductListRepository.Row> rows = productListRepository.findPage(criteria, sort, selected, after, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductListRepository.Row> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = hasNext ? page.getLast().position().encode() : null;
+        return new ProductListResponse(page.stream().map(ProductListRepository.Row::item).toList(), nextCursor);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ProductSuggestionResponse> suggestProducts(String prefix, int limit) {
+        if (prefix == null) {
+            return List.of();
+        }
+        return productCatalog.suggest(prefix, Math.clamp(limit, 1, MAX_SUGGESTIONS)).stream()
+                .map(product -> new ProductSuggestionResponse(product.id(), product.name(), product.status()))
+                .toList();
+    }
+
+    // The database only ranks ids; the products themselves come from the in-memory catalog
+    @Transactional(readOnly = true)
+    public ProductPageResponse searchProducts(String query, SearchLanguage language, String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_SEARCH_PAGE_SIZE);
+        if (query == null || query.isBlank()) {
+            return new ProductPageResponse(List.of(), null, false);
+        }
+        ProductSearchCursor after = cursor == null || cursor.isBlank() ? null : ProductSearchCursor.decode(cursor);
+
+        ProductSearchResult result = productSearchRepository.search(language, query.trim(), after, pageSize + 1);
+        List<ProductSearchCursor> hits = result.hits();
+        boolean hasNext = hits.size() > pageSize;
+        List<ProductSearchCursor> page = hasNext ? hits.subList(0, pageSize) : hits;
+
+        List<ProductResponse> items = page.stream()
+                .map(hit -> productCatalog.find(hit.id()))
+                // Deleted since the catalog snapshot was published
+                .filter(Objects::nonNull)
                 .toList();
+        String nextCursor = hasNext ? page.getLast().encode() : null;
+        return new ProductPageResponse(items, nextCursor, result.truncated());
     }
 
     public ProductResponse updateProduct(Long id, ProductUpdateRequest request) {
@@ -68,30 +224,144 @@ public class ProductService {
         if (request.status() != null) {
             product.setStatus(request.status());
         }
+
+        Product updated = productRepository.saveAndFlush(product);
         if (request.quantityOnHand() != null) {
-            product.setQuantityOnHand(request.quantityOnHand());
+            stockLedgerRepository.adjustTo(id, request.quantityOnHand());
+            // quantityOnHand is a formula over the ledger, so it is read back rather than set
+            entityManager.refresh(updated);
         }
-        
-        Product updated = productRepository.save(product);
+        refreshCatalogAfterCommit(List.of(id));
+        invalidationBus.publish(CacheTopic.PRODUCT, id);
         return toProductResponse(updated);
     }
 
+    // Not part of ProductResponse, so the catalog snapshot is left alone; the next low-stock scan picks it up
+    public void updateReorderThreshold(Long id, ReorderThresholdRequest request) {
+        log.info("Setting reorder threshold={} for product with id={}", request.reorderThreshold(), id);
+        Product product = getProductEntity(id);
+        product.setReorderThreshold(request.reorderThreshold());
+        productRepository.save(product);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public LowStockReport getLowStockReport() {
+        return lowStockWatcher.getReport();
+    }
+
+    // One UPDATE for every matching product, then a single catalog refresh and invalidation for all of them
+    public ProductBulkUpdateResponse bulkUpdateProducts(ProductBulkUpdateRequest request) {
+        List<Long> ids;
+        if (request.status() != null) {
+            log.info("Bulk updating status={} for products matching {}", request.status(), request.filter());
+            ids = productRepository.updateStatusMatching(request.filter(), request.status());
+        } else {
+            log.info("Bulk adjusting price by percent={} amount={} for products matching {}",
+                    request.pricePercentChange(), request.priceAmountChange(), request.filter());
+            ids = productRepository.adjustPriceMatching(
+                    request.filter(), request.pricePercentChange(), request.priceAmountChange());
+        }
+
+        if (!ids.isEmpty()) {
+            refreshCatalogAfterCommit(ids);
+            invalidationBus.publish(CacheTopic.PRODUCT, null);
+        }
+        return new ProductBulkUpdateResponse(ids.size(), ids);
+    }
+
+    // Order items keep pointing at the row, so a product is only ever marked deleted and discontinued
     public void deleteProduct(Long id) {
         log.info("Deleting product with id={}", id);
-        if (!productRepository.existsById(id)) {
+        if (productRepository.softDeleteById(id) == 0) {
             throw new ProductNotFoundException(id);
         }
-        productRepository.deleteById(id);
+        refreshCatalogAfterCommit(List.of(id));
+        invalidationBus.publish(CacheTopic.PRODUCT, id);
     }
 
-    private ProductResponse toProductResponse(Product product) {
-        return new ProductResponse(
-                product.getId(),
-                product.getName(),
-                product.getDescription(),
-                product.getPrice(),
-                product.getStatus(),
-                product.getQuantityOnHand()
+    // Rows are validated as they are read and valid ones go straight into the COPY stream, so nothing
+    // but the first MAX_REPORTED_REJECTS rejects is held in memory however large the upload is
+    public ProductImportResponse importProducts(ExportFormat format, InputStream in) throws IOException {
+        List<ProductImportReject> rejects = new ArrayList<>();
+        long rejected = 0;
+        List<Long> imported;
+        try (RowReader reader = format.openReader(in);
+             ProductImportRepository.Staging staging = productImportRepository.openStaging()) {
+            while (true) {
+                List<String> errors = new ArrayList<>();
+                ProductRequest product = null;
+                try {
+                    Map<String, String> row = reader.readRow();
+                    if (row == null) {
+                        break;
+                    }
+                    product = toProductRequest(row, errors);
+                } catch (RowFormatException e) {
+                    errors.add(e.getMessage());
+                }
+                if (errors.isEmpty()) {
+                    staging.add(reader.rowNumber(), product);
+                    continue;
+                }
+                rejected++;
+                if (rejects.size() < MAX_REPORTED_REJECTS) {
+                    rejects.add(new ProductImportReject(reader.rowNumber(), errors));
+                }
+            }
+            imported = staging.finish();
+        }
+
+        log.info("Imported {} products, rejected {} rows", imported.size(), rejected);
+        if (!imported.isEmpty()) {
+            refreshCatalogAfterCommit(imported);
+            invalidationBus.publish(CacheTopic.PRODUCT, null);
+        }
+        return new ProductImportResponse(imported.size(), rejected, rejects);
+    }
+
+    private ProductRequest toProductRequest(Map<String, String> row, List<String> errors) {
+        ProductRequest request = new ProductRequest(
+                row.get("name"),
+                row.get("description"),
+                parse(row, "price", BigDecimal::new, errors),
+                parse(row, "status", value -> ProductStatus.valueOf(value.toUpperCase(Locale.ROOT)), errors),
+                parse(row, "quantityOnHand", Integer::valueOf, errors)
         );
+        validator.validate(request).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .forEach(errors::add);
+        return request;
+    }
+
+    private static <T> T parse(Map<String, String> row, String column, Function<String, T> parser, List<String> errors) {
+        String value = row.get(column);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (IllegalArgumentException e) {
+            errors.add(column + ": invalid value '" + value + "'"
+                    + (column.equals("status") ? ", expected one of " + Arrays.toString(ProductStatus.values()) : ""));
+            return null;
+        }
+    }
+
+    private void refreshCatalogAfterCommit(Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            productCatalog.refresh(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productCatalog.refresh(ids);
+            }
+        });
+    }
+
+    private ProductResponse toProductResponse(Product product) {
+        return ProductCatalog.toResponse(product);
     }
 }
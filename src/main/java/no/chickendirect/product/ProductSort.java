@@ -0,0 +1,24 @@
+package no.chickendirect.product;
+
+public enum ProductSort {
+    PRICE_ASC("price", false),
+    PRICE_DESC("price", true),
+    NAME_ASC("name", false),
+    NAME_DESC("name", true);
+
+    private final String column;
+    private final boolean descending;
+
+    ProductSort(String column, boolean descending) {
+        this.column = column;
+        this.descending = descending;
+    }
+
+    String column() {
+        return column;
+    }
+
+    boolean descending() {
+        return descending;
+    }
+}
@@ -0,0 +1,15 @@
+package no.chickendirect.product;
+
+import java.util.Locale;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductSortConverter implements Converter<String, ProductSort> {
+
+    @Override
+    public ProductSort convert(String source) {
+        return ProductSort.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
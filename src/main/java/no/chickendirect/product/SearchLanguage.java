@@ -0,0 +1,28 @@
+package no.chickendirect.product;
+
+public enum SearchLanguage {
+    EN("english", "search_en", "name_search_en"),
+    NO("norwegian", "search_no", "name_search_no");
+
+    private final String textSearchConfig;
+    private final String searchColumn;
+    private final String nameSearchColumn;
+
+    SearchLanguage(String textSearchConfig, String searchColumn, String nameSearchColumn) {
+        this.textSearchConfig = textSearchConfig;
+        this.searchColumn = searchColumn;
+        this.nameSearchColumn = nameSearchColumn;
+    }
+
+    public String textSearchConfig() {
+        return textSearchConfig;
+    }
+
+    String searchColumn() {
+        return searchColumn;
+    }
+
+    String nameSearchColumn() {
+        return nameSearchColumn;
+    }
+}
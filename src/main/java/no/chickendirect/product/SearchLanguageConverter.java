@@ -0,0 +1,15 @@
+package no.chickendirect.product;
+
+import java.util.Locale;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SearchLanguageConverter implements Converter<String, SearchLanguage> {
+
+    @Override
+    public SearchLanguage convert(String source) {
+        return SearchLanguage.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
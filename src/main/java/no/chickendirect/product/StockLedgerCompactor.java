@@ -0,0 +1,46 @@
+package no.chickendirect.product;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.cache.CacheTopic;
+import no.chickendirect.cache.InvalidationBus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockLedgerCompactor {
+
+    private final StockLedgerRepository stockLedgerRepository;
+    private final ProductCatalog productCatalog;
+    private final ProductCatalogProperties catalogProperties;
+    private final InvalidationBus invalidationBus;
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.compact-interval:60s}")
+    public void compact() {
+        List<Long> pending = stockLedgerRepository.findProductIdsWithPendingMovements();
+        int compacted = 0;
+        for (Long productId : pending) {
+            // Products busy with a reservation are skipped and picked up on the next run
+            if (stockLedgerRepository.compact(productId)) {
+                compacted++;
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.debug("Rolled stock movements into snapshots for {} of {} products", compacted, pending.size());
+        // Catalog stock figures follow the ledger on the compaction cycle rather than per reservation. Every
+        // product with new movements is refreshed, compacted or not: one under steady buying keeps losing the
+        // lock but still has to show its current stock. Nodes whose own run finds it already compacted are told.
+        productCatalog.refresh(pending);
+        if (pending.size() > catalogProperties.maxPendingChanges()) {
+            invalidationBus.publish(CacheTopic.PRODUCT, null);
+        } else {
+            pending.forEach(productId -> invalidationBus.publish(CacheTopic.PRODUCT, productId));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package no.chickendirect.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Appends take the product's advisory lock in shared mode, so they never wait on each other.
+// Anything that must see every committed movement (availability checks, compaction) takes it exclusively.
+@Repository
+@RequiredArgsConstructor
+public class StockLedgerRepository {
+
+    private static final String LOCK_SHARED = "SELECT pg_advisory_xact_lock_shared(:productId)";
+
+    private static final String LOCK_EXCLUSIVE = "SELECT pg_advisory_xact_lock(:productId)";
+
+    private static final String TRY_LOCK_EXCLUSIVE = "SELECT pg_try_advisory_xact_lock(:productId)";
+
+    private static final String AVAILABLE = """
+            SELECT quantity_on_hand
+            FROM product_stock
+            WHERE product_id = :productId
+            """;
+
+    private static final String APPEND = """
+            INSERT INTO stock_movement (product_id, movement_type, quantity_delta)
+            VALUES (:productId, :type, :delta)
+            """;
+
+    private static final String COMPACT = """
+            WITH pending AS (
+                SELECT SUM(m.quantity_delta) AS delta, MAX(m.id) AS last_id
+                FROM stock_movement m
+                JOIN product p ON p.id = m.product_id
+                WHERE m.product_id = :productId
+                  AND m.id > p.stock_snapshot_movement_id
+            )
+            UPDATE product p
+            SET stock_snapshot_quantity = p.stock_snapshot_quantity + pending.delta,
+                stock_snapshot_movement_id = pending.last_id
+            FROM pending
+            WHERE p.id = :productId
+              AND pending.last_id IS NOT NULL
+            """;
+
+    private static final String PRODUCTS_WITH_PENDING_MOVEMENTS = """
+            SELECT p.id
+            FROM product p
+            WHERE EXISTS (SELECT 1
+                          FROM stock_movement m
+                          WHERE m.product_id = p.id
+                            AND m.id > p.stock_snapshot_movement_id)
+            """;
+
+    private static final String MARK_OUT_OF_STOCK = """
+            UPDATE product p
+            SET status = 'OUT_OF_STOCK'
+            FROM product_stock s
+            WHERE p.id = :productId
+              AND s.product_id = p.id
+              AND s.quantity_on_hand = 0
+              AND p.status = 'IN_STOCK'
+            """;
+
+    private static final String MARK_IN_STOCK = """
+            UPDATE product p
+            SET status = 'IN_STOCK'
+            FROM product_stock s
+            WHERE p.id = :productId
+              AND s.product_id = p.id
+              AND s.quantity_on_hand > 0
+              AND p.status = 'OUT_OF_STOCK'
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void append(Long productId, StockMovementType type, int delta) {
+        MapSqlParameterSource params = new MapSqlParameterSource("productId", productId);
+        jdbcTemplate.queryForList(LOCK_SHARED, params);
+        jdbcTemplate.update(APPEND, params.addValue("type", type.name()).addValue("delta", delta));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Integer lockAvailable(Long productId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("productId", productId);
+        jdbcTemplate.queryForList(LOCK_EXCLUSIVE, params);
+        List<Integer> available = jdbcTemplate.queryForList(AVAILABLE, params, Integer.class);
+        return available.isEmpty() ? null : available.getFirst();
+    }
+
+    @Transactional
+    public void adjustTo(Long productId, int quantity) {
+        Integer available = lockAvailable(productId);
+        if (available != null && available != quantity) {
+            append(productId, StockMovementType.ADJUSTMENT, quantity - available);
+        }
+    }
+
+    @Transactional
+    public boolean compact(Long productId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("productId", productId);
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_EXCLUSIVE, params, Boolean.class))) {
+            return false;
+        }
+        jdbcTemplate.update(COMPACT, params);
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findProductIdsWithPendingMovements() {
+        return jdbcTemplate.queryForList(PRODUCTS_WITH_PENDING_MOVEMENTS, new MapSqlParameterSource(), Long.class);
+    }
+
+    @Transactional
+    public boolean markOutOfStockIfEmpty(Long productId) {
+        return jdbcTemplate.update(MARK_OUT_OF_STOCK, new MapSqlParameterSource("productId", productId)) > 0;
+    }
+
+    @Transactional
+    public boolean markInStockIfAvailable(Long productId) {
+        return jdbcTemplate.update(MARK_IN_STOCK, new MapSqlParameterSource("productId", productId)) > 0;
+    }
+}
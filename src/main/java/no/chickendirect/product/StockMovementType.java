@@ -0,0 +1,11 @@
+package no.chickendirect.product;
+
+public enum StockMovementType {
+    RECEIPT,
+    RESTOCK,
+    RESERVATION,
+    CANCELLATION,
+    ADJUSTMENT,
+    HOT_LEASE,
+    HOT_RETURN
+}
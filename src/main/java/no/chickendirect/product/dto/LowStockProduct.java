@@ -0,0 +1,8 @@
+package no.chickendirect.product.dto;
+
+public record LowStockProduct(
+        Long id,
+        String name,
+        int quantityOnHand,
+        int reorderThreshold
+) {}
@@ -0,0 +1,10 @@
+package no.chickendirect.product.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+// scannedAt is null until the first scan has run
+public record LowStockReport(
+        Instant scannedAt,
+        List<LowStockProduct> products
+) {}
@@ -0,0 +1,31 @@
+package no.chickendirect.product.dto;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import no.chickendirect.productstatus.ProductStatus;
+
+public record ProductBulkUpdateRequest(
+        @NotNull @Valid ProductFilter filter,
+        @DecimalMin(value = "-100", inclusive = false) BigDecimal pricePercentChange,
+        BigDecimal priceAmountChange,
+        ProductStatus status
+) {
+
+    @AssertTrue(message = "Provide a non-empty filter")
+    public boolean isFilterValid() {
+        return filter == null || filter.hasAnyFilter();
+    }
+
+    @AssertTrue(message = "Provide exactly one of pricePercentChange, priceAmountChange or status")
+    public boolean isOperationValid() {
+        return Stream.of(pricePercentChange, priceAmountChange, status)
+                .filter(Objects::nonNull)
+                .count() == 1;
+    }
+}
@@ -0,0 +1,8 @@
+package no.chickendirect.product.dto;
+
+import java.util.List;
+
+public record ProductBulkUpdateResponse(
+        int updated,
+        List<Long> productIds
+) {}
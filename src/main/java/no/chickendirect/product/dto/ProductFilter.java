@@ -0,0 +1,21 @@
+package no.chickendirect.product.dto;
+
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import no.chickendirect.productstatus.ProductStatus;
+
+public record ProductFilter(
+        ProductStatus status,
+        String namePrefix,
+        @PositiveOrZero BigDecimal minPrice,
+        @PositiveOrZero BigDecimal maxPrice
+) {
+
+    public boolean hasAnyFilter() {
+        return status != null
+                || (namePrefix != null && !namePrefix.isBlank())
+                || minPrice != null
+                || maxPrice != null;
+    }
+}
@@ -0,0 +1,8 @@
+package no.chickendirect.product.dto;
+
+import java.util.List;
+
+public record ProductImportReject(
+        long row,
+        List<String> errors
+) {}
@@ -0,0 +1,9 @@
+package no.chickendirect.product.dto;
+
+import java.util.List;
+
+public record ProductImportResponse(
+        long imported,
+        long rejected,
+        List<ProductImportReject> rejects
+) {}
@@ -0,0 +1,17 @@
+package no.chickendirect.product.dto;
+
+import java.math.BigDecimal;
+
+import no.chickendirect.productstatus.ProductStatus;
+
+public record ProductListCriteria(
+        ProductStatus status,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Boolean inStock
+) {
+
+    public boolean inStockOnly() {
+        return Boolean.TRUE.equals(inStock);
+    }
+}
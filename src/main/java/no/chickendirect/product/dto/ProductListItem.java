@@ -0,0 +1,18 @@
+package no.chickendirect.product.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import no.chickendirect.productstatus.ProductStatus;
+
+// Fields left out of the requested fieldset are null and omitted from the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductListItem(
+        Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        ProductStatus status,
+        Integer quantityOnHand
+) {}
@@ -0,0 +1,8 @@
+package no.chickendirect.product.dto;
+
+import java.util.List;
+
+public record ProductListResponse(
+        List<ProductListItem> items,
+        String nextCursor
+) {}
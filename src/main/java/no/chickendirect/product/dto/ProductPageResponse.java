@@ -0,0 +1,10 @@
+package no.chickendirect.product.dto;
+
+import java.util.List;
+
+// truncated: the query matched more products than search ranks, so only the most relevant were paged through
+public record ProductPageResponse(
+        List<ProductResponse> items,
+        String nextCursor,
+        boolean truncated
+) {}
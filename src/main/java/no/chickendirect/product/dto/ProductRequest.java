@@ -2,12 +2,16 @@ package no.chickendirect.product.dto;
 
 import java.math.BigDecimal;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import no.chickendirect.productstatus.ProductStatus;
 
 public record ProductRequest(
-        String name,
-        String description,
-        BigDecimal price,
-        ProductStatus status,
-        Integer quantityOnHand
+        @NotBlank @Size(max = 255) String name,
+        @NotBlank String description,
+        @NotNull @PositiveOrZero BigDecimal price,
+        @NotNull ProductStatus status,
+        @PositiveOrZero Integer quantityOnHand
 ) {}
@@ -0,0 +1,9 @@
+package no.chickendirect.product.dto;
+
+import no.chickendirect.productstatus.ProductStatus;
+
+public record ProductSuggestionResponse(
+        Long id,
+        String name,
+        ProductStatus status
+) {}
@@ -0,0 +1,8 @@
+package no.chickendirect.product.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+// A null threshold stops watching the product
+public record ReorderThresholdRequest(
+        @PositiveOrZero Integer reorderThreshold
+) {}
@@ -0,0 +1,8 @@
+package no.chickendirect.product.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record RestockRequest(
+        @NotNull @Positive Integer quantity
+) {}
@@ -0,0 +1,8 @@
+-- Keeps the pooled sequences' INCREMENT BY at ids.allocation-size. Flyway reapplies this whenever the value
+-- changes, and Hibernate reads the increment back from each sequence at startup (increment_size_mismatch_strategy=FIX).
+-- The next block simply starts after the last one handed out, whatever its size.
+ALTER SEQUENCE customer_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE address_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE product_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE orders_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE order_item_id_seq INCREMENT BY ${id_allocation_size};
@@ -0,0 +1,12 @@
+-- Snapshot product name and price on each order line at purchase time
+ALTER TABLE order_item ADD COLUMN unit_price NUMERIC(19, 2);
+ALTER TABLE order_item ADD COLUMN product_name VARCHAR(255);
+
+UPDATE order_item oi
+SET unit_price   = p.price,
+    product_name = p.name
+FROM product p
+WHERE p.id = oi.product_id;
+
+ALTER TABLE order_item ALTER COLUMN unit_price SET NOT NULL;
+ALTER TABLE order_item ALTER COLUMN product_name SET NOT NULL;
@@ -0,0 +1,22 @@
+-- Stock leased out of product.quantity_on_hand into an instance's in-memory counters.
+-- quantity is what the owner still held at its last flush.
+CREATE TABLE hot_stock_lease
+(
+    product_id BIGINT       NOT NULL REFERENCES product (id),
+    owner      VARCHAR(100) NOT NULL,
+    quantity   INTEGER      NOT NULL CHECK (quantity >= 0),
+    updated_at TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    PRIMARY KEY (product_id, owner)
+);
+
+-- Append-only log of units sold from a lease since the last flush
+CREATE TABLE hot_stock_reservation
+(
+    id         BIGSERIAL PRIMARY KEY,
+    product_id BIGINT       NOT NULL,
+    owner      VARCHAR(100) NOT NULL,
+    quantity   INTEGER      NOT NULL CHECK (quantity > 0),
+    FOREIGN KEY (product_id, owner) REFERENCES hot_stock_lease (product_id, owner)
+);
+
+CREATE INDEX idx_hot_stock_reservation_lease ON hot_stock_reservation (product_id, owner);
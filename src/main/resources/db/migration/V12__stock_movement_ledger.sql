@@ -0,0 +1,23 @@
+-- Stock changes are appended to stock_movement instead of overwriting product in place.
+-- product keeps a snapshot: the quantity as of stock_snapshot_movement_id, rolled forward by the compactor.
+ALTER TABLE product RENAME COLUMN quantity_on_hand TO stock_snapshot_quantity;
+ALTER TABLE product ADD COLUMN stock_snapshot_movement_id BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE stock_movement
+(
+    id             BIGSERIAL PRIMARY KEY,
+    product_id     BIGINT      NOT NULL REFERENCES product (id) ON DELETE CASCADE,
+    movement_type  VARCHAR(30) NOT NULL, -- enum: RECEIPT, RESTOCK, RESERVATION, CANCELLATION, ADJUSTMENT, HOT_LEASE, HOT_RETURN
+    quantity_delta INTEGER     NOT NULL,
+    created_at     TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_stock_movement_product_id ON stock_movement (product_id, id) INCLUDE (quantity_delta);
+
+CREATE VIEW product_stock AS
+SELECT p.id AS product_id,
+       p.stock_snapshot_quantity + COALESCE((SELECT SUM(m.quantity_delta)
+                                             FROM stock_movement m
+                                             WHERE m.product_id = p.id
+                                               AND m.id > p.stock_snapshot_movement_id), 0)::INTEGER AS quantity_on_hand
+FROM product p;
@@ -0,0 +1,2 @@
+-- Bumped on every change that alters what an order's receipt shows, including item changes
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- One search vector per supported dictionary, kept current by Postgres on every insert and update.
+-- Name matches (weight A) rank above description matches (weight B).
+ALTER TABLE product
+    ADD COLUMN search_en TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED,
+    ADD COLUMN search_no TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('norwegian', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('norwegian', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX idx_product_search_en ON product USING GIN (search_en);
+
+CREATE INDEX idx_product_search_no ON product USING GIN (search_no);
@@ -0,0 +1,9 @@
+-- Product listings filter on status and walk price or name order; the trailing id makes every key unique
+-- for keyset pages. The INCLUDEd columns let list views that skip description be answered from the index alone.
+CREATE INDEX idx_product_status_price_id ON product (status, price, id) INCLUDE (name);
+
+CREATE INDEX idx_product_price_id ON product (price, id) INCLUDE (name, status);
+
+CREATE INDEX idx_product_status_name_id ON product (status, name, id) INCLUDE (price);
+
+CREATE INDEX idx_product_name_id ON product (name, id) INCLUDE (price, status);
@@ -0,0 +1,30 @@
+-- Products referenced by order items can no longer be removed, so deletion only stamps deleted_at
+-- (and discontinues the product). Browsing indexes cover the active catalog alone: deleted and
+-- discontinued rows are left out, so listing and search cost grows with what is for sale, not with history.
+ALTER TABLE product
+    ADD COLUMN deleted_at TIMESTAMPTZ;
+
+DROP INDEX idx_product_status_price_id;
+DROP INDEX idx_product_price_id;
+DROP INDEX idx_product_status_name_id;
+DROP INDEX idx_product_name_id;
+DROP INDEX idx_product_search_en;
+DROP INDEX idx_product_search_no;
+
+CREATE INDEX idx_product_status_price_id ON product (status, price, id) INCLUDE (name)
+    WHERE deleted_at IS NULL AND status <> 'DISCONTINUED';
+
+CREATE INDEX idx_product_price_id ON product (price, id) INCLUDE (name, status)
+    WHERE deleted_at IS NULL AND status <> 'DISCONTINUED';
+
+CREATE INDEX idx_product_status_name_id ON product (status, name, id) INCLUDE (price)
+    WHERE deleted_at IS NULL AND status <> 'DISCONTINUED';
+
+CREATE INDEX idx_product_name_id ON product (name, id) INCLUDE (price, status)
+    WHERE deleted_at IS NULL AND status <> 'DISCONTINUED';
+
+CREATE INDEX idx_product_search_en ON product USING GIN (search_en)
+    WHERE deleted_at IS NULL AND status <> 'DISCONTINUED';
+
+CREATE INDEX idx_product_search_no ON product USING GIN (search_no)
+    WHERE deleted_at IS NULL AND status <> 'DISCONTINUED';
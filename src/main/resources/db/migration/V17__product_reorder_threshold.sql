@@ -0,0 +1,11 @@
+-- Products with a threshold are watched for low stock; NULL means the product is not watched.
+-- The partial index holds only watched active products whose snapshot is at or below their threshold,
+-- so the low-stock scan reads a handful of entries however large the catalog grows.
+ALTER TABLE product
+    ADD COLUMN reorder_threshold INTEGER CHECK (reorder_threshold >= 0);
+
+CREATE INDEX idx_product_low_stock ON product (id)
+    WHERE reorder_threshold IS NOT NULL
+      AND stock_snapshot_quantity <= reorder_threshold
+      AND deleted_at IS NULL
+      AND status <> 'DISCONTINUED';
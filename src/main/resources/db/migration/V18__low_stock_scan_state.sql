@@ -0,0 +1,15 @@
+-- Low-stock scan state shared by every node, so alerts survive restarts and whichever node scans next.
+-- The single low_stock_scan row holds the ledger position the next scan reads from and when the last one ran.
+CREATE TABLE low_stock_scan
+(
+    id               BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    last_movement_id BIGINT      NOT NULL,
+    scanned_at       TIMESTAMPTZ NOT NULL
+);
+
+-- Products alerted as low and not back above their threshold since; each is alerted once until it recovers
+CREATE TABLE low_stock_alert
+(
+    product_id BIGINT PRIMARY KEY REFERENCES product (id) ON DELETE CASCADE,
+    alerted_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
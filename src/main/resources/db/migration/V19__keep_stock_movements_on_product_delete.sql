@@ -0,0 +1,5 @@
+-- stock_movement is the audit trail of a product's stock, so a hard delete of a product that has movements
+-- is now rejected instead of taking its history with it. Products are soft-deleted (V16) in normal use.
+ALTER TABLE stock_movement DROP CONSTRAINT stock_movement_product_id_fkey;
+ALTER TABLE stock_movement
+    ADD CONSTRAINT stock_movement_product_id_fkey FOREIGN KEY (product_id) REFERENCES product (id);
@@ -0,0 +1,11 @@
+-- Name-only search vectors, so search can take its name matches (ranked first) straight from an index of
+-- names instead of sorting every match of the full vectors to find them.
+ALTER TABLE product
+    ADD COLUMN name_search_en TSVECTOR GENERATED ALWAYS AS (to_tsvector('english', coalesce(name, ''))) STORED,
+    ADD COLUMN name_search_no TSVECTOR GENERATED ALWAYS AS (to_tsvector('norwegian', coalesce(name, ''))) STORED;
+
+CREATE INDEX idx_product_name_search_en ON product USING GIN (name_search_en)
+    WHERE deleted_at IS NULL AND status <> 'DISCONTINUED';
+
+CREATE INDEX idx_product_name_search_no ON product USING GIN (name_search_no)
+    WHERE deleted_at IS NULL AND status <> 'DISCONTINUED';
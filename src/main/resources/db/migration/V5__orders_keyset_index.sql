@@ -0,0 +1,8 @@
+UPDATE orders
+SET creation_date = CURRENT_TIMESTAMP
+WHERE creation_date IS NULL;
+
+ALTER TABLE orders
+ALTER COLUMN creation_date SET NOT NULL;
+
+CREATE INDEX idx_orders_creation_date_id ON orders (creation_date DESC, id DESC);
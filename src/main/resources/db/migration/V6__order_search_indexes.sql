@@ -0,0 +1,19 @@
+-- Every index ends in (creation_date DESC, id DESC) so a filtered search can still
+-- walk its keyset order straight off the index.
+
+-- Unshipped orders are the small, hot working set
+CREATE INDEX idx_orders_unshipped_creation_date_id
+    ON orders (creation_date DESC, id DESC)
+    WHERE is_shipped = FALSE;
+
+CREATE INDEX idx_orders_customer_id_creation_date_id
+    ON orders (customer_id, creation_date DESC, id DESC);
+
+CREATE INDEX idx_orders_customer_email_creation_date_id
+    ON orders (lower(customer_email), creation_date DESC, id DESC);
+
+CREATE INDEX idx_orders_shipping_city_postal_code_creation_date_id
+    ON orders (shipping_city, shipping_postal_code, creation_date DESC, id DESC);
+
+CREATE INDEX idx_orders_shipping_postal_code_creation_date_id
+    ON orders (shipping_postal_code, creation_date DESC, id DESC);
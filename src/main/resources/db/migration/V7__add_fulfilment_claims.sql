@@ -0,0 +1,3 @@
+ALTER TABLE orders
+ADD COLUMN claimed_by VARCHAR(100),
+ADD COLUMN claim_expires_at TIMESTAMP WITH TIME ZONE;
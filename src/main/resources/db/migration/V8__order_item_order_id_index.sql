@@ -0,0 +1,2 @@
+-- Covers the order -> lines join used by order pages and the pick-list aggregate
+CREATE INDEX idx_order_item_order_id ON order_item (order_id) INCLUDE (product_id, quantity);
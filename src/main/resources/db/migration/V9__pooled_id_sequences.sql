@@ -0,0 +1,14 @@
+-- Pooled ID allocation: Hibernate reserves ${id_allocation_size} ids per sequence call,
+-- so inserts no longer need RETURNING id and can be sent as JDBC batches.
+-- Column defaults keep using the same sequences, so plain SQL inserts stay valid.
+ALTER SEQUENCE customer_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE address_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE product_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE orders_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE order_item_id_seq INCREMENT BY ${id_allocation_size};
+
+SELECT setval('customer_id_seq', (SELECT COALESCE(MAX(id), 0) FROM customer) + ${id_allocation_size});
+SELECT setval('address_id_seq', (SELECT COALESCE(MAX(id), 0) FROM address) + ${id_allocation_size});
+SELECT setval('product_id_seq', (SELECT COALESCE(MAX(id), 0) FROM product) + ${id_allocation_size});
+SELECT setval('orders_id_seq', (SELECT COALESCE(MAX(id), 0) FROM orders) + ${id_allocation_size});
+SELECT setval('order_item_id_seq', (SELECT COALESCE(MAX(id), 0) FROM order_item) + ${id_allocation_size});
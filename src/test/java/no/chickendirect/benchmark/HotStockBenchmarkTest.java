@@ -0,0 +1,133 @@
+package no.chickendirect.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.product.HotInventory;
+import no.chickendirect.product.ProductService;
+
+/**
+ * Run with {@code mvn test -Dtest=HotStockBenchmarkTest -Dbenchmark=true}.
+ * Every purchase holds its transaction open for a little simulated checkout work,
+ * which is what keeps the product row locked under row-level decrements.
+ */
+@SpringBootTest
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class HotStockBenchmarkTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+        registry.add("spring.jpa.show-sql", () -> false);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> BUYERS + 4);
+        registry.add("inventory.hot.lease-size", () -> 500);
+    }
+
+    private static final int BUYERS = 32;
+    private static final int PURCHASES = 4_000;
+    private static final long CHECKOUT_WORK_MILLIS = 2;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private HotInventory hotInventory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void singleSkuFlashSale_purchasesPerSecond() throws Exception {
+        Long rowLevelProduct = insertProduct();
+        Long hotProduct = insertProduct();
+        hotInventory.enable(hotProduct);
+
+        buy(rowLevelProduct, PURCHASES / 10);
+        buy(hotProduct, PURCHASES / 10);
+
+        double rowLevel = buy(rowLevelProduct, PURCHASES);
+        double hot = buy(hotProduct, PURCHASES);
+        hotInventory.disable(hotProduct);
+
+        log.info("Single SKU purchases: row-level = {}/s, hot counters = {}/s ({}x)",
+                Math.round(rowLevel), Math.round(hot), "%.1f".formatted(hot / rowLevel));
+        assertEquals(quantityOnHand(rowLevelProduct), quantityOnHand(hotProduct));
+        assertTrue(hot > rowLevel * 2);
+    }
+
+    private double buy(Long productId, int purchases) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        long begin;
+        try (ExecutorService executor = Executors.newFixedThreadPool(BUYERS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < purchases; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    transactionTemplate.executeWithoutResult(status -> {
+                        productService.reserveStock(productId, 1);
+                        try {
+                            Thread.sleep(CHECKOUT_WORK_MILLIS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                    return null;
+                }));
+            }
+            begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return purchases / ((System.nanoTime() - begin) / 1_000_000_000.0);
+    }
+
+    private Long insertProduct() {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO product (name, price, status, stock_snapshot_quantity)
+                VALUES ('Whole Chicken - Fresh', 129.00, 'IN_STOCK', 1000000)
+                RETURNING id
+                """, Long.class);
+    }
+
+    private int quantityOnHand(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity_on_hand FROM product_stock WHERE product_id = ?", Integer.class, productId);
+    }
+}
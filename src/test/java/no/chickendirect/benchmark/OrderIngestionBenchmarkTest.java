@@ -0,0 +1,166 @@
+package no.chickendirect.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.order.Order;
+import no.chickendirect.orderitem.OrderItem;
+import no.chickendirect.product.Product;
+
+/**
+ * Run with {@code mvn test -Dtest=OrderIngestionBenchmarkTest -Dbenchmark=true}.
+ * The IDENTITY baseline issues what Hibernate sends for IDENTITY keys: one INSERT ... RETURNING id per row,
+ * since the key of every order is needed before its items can be written. It skips Hibernate's own per-entity
+ * work, so it flatters IDENTITY rather than the pooled sequences.
+ */
+@SpringBootTest
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class OrderIngestionBenchmarkTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+        registry.add("spring.jpa.show-sql", () -> false);
+    }
+
+    private static final int ORDERS = 2_000;
+    private static final int ITEMS_PER_ORDER = 5;
+    private static final int ORDERS_PER_TRANSACTION = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bulkOrderIngestion_rowsPerSecond() {
+        List<Long> productIds = entityManager
+                .createQuery("select p.id from Product p order by p.id", Long.class)
+                .setMaxResults(10)
+                .getResultList();
+
+        for (int round = 0; round < 2; round++) {
+            ingestWithIdentityKeys(productIds, ORDERS);
+            ingest(productIds, 1, ORDERS);
+            ingest(productIds, 50, ORDERS);
+        }
+
+        double identity = ingestWithIdentityKeys(productIds, ORDERS);
+        double unbatched = ingest(productIds, 1, ORDERS);
+        double batched = ingest(productIds, 50, ORDERS);
+
+        log.info("Order ingestion: IDENTITY = {} rows/s, pooled sequence with batch size 1 = {} rows/s, "
+                        + "batch size 50 = {} rows/s ({}x IDENTITY)",
+                Math.round(identity), Math.round(unbatched), Math.round(batched),
+                "%.1f".formatted(batched / identity));
+        assertTrue(batched > identity);
+        assertTrue(batched > unbatched * 1.5);
+    }
+
+    private double ingestWithIdentityKeys(List<Long> productIds, int orders) {
+        long start = System.nanoTime();
+        for (int offset = 0; offset < orders; offset += ORDERS_PER_TRANSACTION) {
+            int chunk = Math.min(ORDERS_PER_TRANSACTION, orders - offset);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < chunk; i++) {
+                    Long orderId = jdbcTemplate.queryForObject("""
+                            INSERT INTO orders (total_price, shipping_charge, is_shipped,
+                                                shipping_street, shipping_city, shipping_postal_code, shipping_country,
+                                                customer_name, customer_email, customer_phone)
+                            VALUES (500, 50, FALSE, 'Benkeveien 1', 'Oslo', '0150', 'Norway',
+                                    'Bench Customer', 'bench@example.com', '12345678')
+                            RETURNING id
+                            """, Long.class);
+                    for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                        jdbcTemplate.queryForObject("""
+                                INSERT INTO order_item (quantity, order_id, product_id, unit_price, product_name)
+                                VALUES (?, ?, ?, 10, 'Bench Product')
+                                RETURNING id
+                                """, Long.class, 1 + j, orderId, productIds.get((i + j) % productIds.size()));
+                    }
+                }
+            });
+        }
+        return rowsPerSecond(orders, System.nanoTime() - start);
+    }
+
+    private double ingest(List<Long> productIds, int jdbcBatchSize, int orders) {
+        long start = System.nanoTime();
+        for (int offset = 0; offset < orders; offset += ORDERS_PER_TRANSACTION) {
+            int chunk = Math.min(ORDERS_PER_TRANSACTION, orders - offset);
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+                for (int i = 0; i < chunk; i++) {
+                    entityManager.persist(newOrder(productIds, i));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return rowsPerSecond(orders, System.nanoTime() - start);
+    }
+
+    private static double rowsPerSecond(int orders, long elapsedNanos) {
+        long rows = (long) orders * (1 + ITEMS_PER_ORDER);
+        return rows / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private Order newOrder(List<Long> productIds, int seed) {
+        Order order = Order.builder()
+                .customerName("Bench Customer")
+                .customerEmail("bench@example.com")
+                .customerPhone("12345678")
+                .shippingStreet("Benkeveien 1")
+                .shippingCity("Oslo")
+                .shippingPostalCode("0150")
+                .shippingCountry("Norway")
+                .totalPrice(BigDecimal.valueOf(500))
+                .shippingCharge(BigDecimal.valueOf(50))
+                .isShipped(false)
+                .build();
+        for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+            order.addOrderItem(OrderItem.builder()
+                    .product(entityManager.getReference(Product.class, productIds.get((seed + j) % productIds.size())))
+                    .productName("Bench Product")
+                    .unitPrice(BigDecimal.TEN)
+                    .quantity(1 + j)
+                    .build());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,129 @@
+package no.chickendirect.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.product.Product;
+import no.chickendirect.product.ProductCatalog;
+import no.chickendirect.product.ProductCatalogProperties;
+import no.chickendirect.product.ProductRepository;
+import no.chickendirect.productstatus.ProductStatus;
+
+/**
+ * Run with {@code mvn test -Dtest=ProductAutocompleteBenchmarkTest -Dbenchmark=true}.
+ * Types product names one keystroke at a time against a catalog of a million products.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class ProductAutocompleteBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int LOOKUPS = 200_000;
+    private static final int REFRESHES = 1_000;
+
+    private static final String[] ADJECTIVES = {"Smoked", "Free range", "Marinated", "Organic", "Spicy", "Crispy"};
+    private static final String[] CUTS = {"wings", "thighs", "drumsticks", "breast", "nuggets", "liver", "eggs"};
+    private static final List<String> TYPED = List.of("smoked drumsticks", "wings", "organic breast batch41", "liv");
+
+    @Test
+    void suggest_keystrokeLatencyAtAMillionProducts() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllByDeletedAtIsNull(any(Sort.class))).thenReturn(products());
+        ProductCatalog catalog = new ProductCatalog(
+                productRepository, new ProductCatalogProperties(1000), mock(PlatformTransactionManager.class));
+
+        long buildBegin = System.nanoTime();
+        catalog.rebuild();
+        long buildNanos = System.nanoTime() - buildBegin;
+
+        long[] nanos = new long[LOOKUPS];
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            String word = TYPED.get(i % TYPED.size());
+            String prefix = word.substring(0, 1 + ThreadLocalRandom.current().nextInt(word.length()));
+            long begin = System.nanoTime();
+            found += catalog.suggest(prefix, 10).size();
+            nanos[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(nanos);
+
+        log.info("Autocomplete over {} products: build={} ms p50={} us p99={} us p99.9={} us",
+                PRODUCTS, TimeUnit.NANOSECONDS.toMillis(buildNanos), "%.1f".formatted(nanos[LOOKUPS / 2] / 1_000.0),
+                "%.1f".formatted(nanos[LOOKUPS * 99 / 100] / 1_000.0),
+                "%.1f".formatted(nanos[LOOKUPS * 999 / 1000] / 1_000.0));
+        assertTrue(found > 0);
+        assertTrue(nanos[LOOKUPS * 99 / 100] < TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    // One product changing at a time, until as many are pending as the catalog keeps before rebuilding
+    @Test
+    void refresh_singleProductLatencyAtAMillionProducts() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        List<Product> products = products();
+        when(productRepository.findAllByDeletedAtIsNull(any(Sort.class))).thenReturn(products);
+        when(productRepository.findAllByIdInAndDeletedAtIsNull(anyCollection())).thenAnswer(invocation -> {
+            Long id = invocation.<Collection<Long>>getArgument(0).iterator().next();
+            Product product = products.get((int) (id - 1));
+            return List.of(Product.builder()
+                    .id(id)
+                    .name("Renamed " + product.getName())
+                    .description(product.getDescription())
+                    .price(product.getPrice())
+                    .status(ProductStatus.IN_STOCK)
+                    .quantityOnHand(product.getQuantityOnHand())
+                    .build());
+        });
+        ProductCatalog catalog = new ProductCatalog(
+                productRepository, new ProductCatalogProperties(REFRESHES), mock(PlatformTransactionManager.class));
+        catalog.rebuild();
+
+        long[] nanos = new long[REFRESHES];
+        for (int i = 0; i < REFRESHES; i++) {
+            long id = 1 + ThreadLocalRandom.current().nextInt(PRODUCTS);
+            long begin = System.nanoTime();
+            catalog.refresh(List.of(id));
+            nanos[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(nanos);
+        long begin = System.nanoTime();
+        int found = catalog.suggest("renamed", 10).size();
+        long suggestNanos = System.nanoTime() - begin;
+
+        log.info("Catalog refresh over {} products: p50={} us p99={} us max={} us, suggest with {} pending={} us",
+                PRODUCTS, "%.1f".formatted(nanos[REFRESHES / 2] / 1_000.0),
+                "%.1f".formatted(nanos[REFRESHES * 99 / 100] / 1_000.0),
+                "%.1f".formatted(nanos[REFRESHES - 1] / 1_000.0),
+                REFRESHES, "%.1f".formatted(suggestNanos / 1_000.0));
+        assertTrue(found > 0);
+        assertTrue(nanos[REFRESHES * 99 / 100] < TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    private static List<Product> products() {
+        return IntStream.range(0, PRODUCTS)
+                .mapToObj(i -> Product.builder()
+                        .id(i + 1L)
+                        .name(ADJECTIVES[i % ADJECTIVES.length] + " " + CUTS[i % CUTS.length] + " batch" + i % 1000)
+                        .description("Supplier lot " + i)
+                        .price(BigDecimal.TEN)
+                        .status(ProductStatus.values()[i % 3])
+                        .quantityOnHand(i % 3 == 0 ? 10 : 0)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,99 @@
+package no.chickendirect.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Run with {@code mvn test -Dtest=ProductImportBenchmarkTest -Dbenchmark=true}.
+ * Compares one POST /api/products per row with a single streamed COPY import of the same rows.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class ProductImportBenchmarkTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+        registry.add("spring.jpa.show-sql", () -> false);
+        registry.add("logging.level.no.chickendirect", () -> "INFO");
+    }
+
+    private static final int REST_ROWS = 2_000;
+    private static final int COPY_ROWS = 100_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void supplierCatalog_rowsPerSecond() throws Exception {
+        postRows("warmup", 200);
+        importRows("warmup", 1_000);
+
+        double rest = postRows("rest", REST_ROWS);
+        double copy = importRows("copy", COPY_ROWS);
+
+        log.info("Product import: per-row REST = {} rows/s, streamed COPY = {} rows/s ({}x)",
+                Math.round(rest), Math.round(copy), "%.1f".formatted(copy / rest));
+        assertTrue(copy > rest * 10);
+    }
+
+    private double postRows(String prefix, int rows) throws Exception {
+        long begin = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            mockMvc.perform(post("/api/products")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {"name":"%s %d","description":"Supplier item","price":19.90,"status":"IN_STOCK","quantityOnHand":%d}
+                                    """.formatted(prefix, i, i % 100)))
+                    .andExpect(status().isCreated());
+        }
+        return rows / ((System.nanoTime() - begin) / 1_000_000_000.0);
+    }
+
+    private double importRows(String prefix, int rows) throws Exception {
+        StringBuilder csv = new StringBuilder("name,description,price,status,quantityOnHand\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(prefix).append(' ').append(i).append(",Supplier item,19.90,IN_STOCK,").append(i % 100).append('\n');
+        }
+        byte[] body = csv.toString().getBytes();
+
+        long begin = System.nanoTime();
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(rows));
+        return rows / ((System.nanoTime() - begin) / 1_000_000_000.0);
+    }
+}
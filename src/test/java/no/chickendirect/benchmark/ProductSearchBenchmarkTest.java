@@ -0,0 +1,103 @@
+package no.chickendirect.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import lombok.extern.slf4j.Slf4j;
+import no.chickendirect.product.ProductSearchResult;
+import no.chickendirect.product.ProductSearchRepository;
+import no.chickendirect.product.SearchLanguage;
+
+/**
+ * Run with {@code mvn test -Dtest=ProductSearchBenchmarkTest -Dbenchmark=true}.
+ * Ranks a page of matches out of a million products; the catalog lookup that follows is in memory.
+ */
+@SpringBootTest
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class ProductSearchBenchmarkTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+        registry.add("spring.jpa.show-sql", () -> false);
+        registry.add("logging.level.no.chickendirect", () -> "INFO");
+    }
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int ITERATIONS = 500;
+
+    // Broad queries: one word in 143,000 names, a description word in 333,000 products that no name has, and
+    // pairs matching about 18,000 each. Narrow ones: 1,000 names, and a single description.
+    private static final List<String> QUERIES = List.of(
+            "wings", "sweden", "smoked drumsticks", "free range thighs", "marinated wings -spicy",
+            "\"organic breast\"", "batch417", "lot 4242");
+
+    @Autowired
+    private ProductSearchRepository productSearchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void search_pageLatencyAtAMillionProducts() {
+        jdbcTemplate.update("""
+                INSERT INTO product (name, description, price, status, stock_snapshot_quantity)
+                SELECT (ARRAY['Smoked','Free range','Marinated','Organic','Spicy','Crispy','Fresh','Frozen'])[1 + i % 8]
+                           || ' ' || (ARRAY['wings','thighs','drumsticks','breast','nuggets','liver','eggs'])[1 + i % 7]
+                           || ' batch' || (i % 1000),
+                       'Supplier lot ' || i || ', packed in ' || (ARRAY['Norway','Sweden','Denmark'])[1 + i % 3],
+                       10 + i % 300, 'IN_STOCK', 0
+                FROM generate_series(1, ?) AS s(i)
+                """, PRODUCTS);
+        // Flushes the GIN pending list the bulk insert left behind, as autovacuum would
+        jdbcTemplate.execute("VACUUM ANALYZE product");
+
+        for (String query : QUERIES) {
+            for (int i = 0; i < 50; i++) {
+                productSearchRepository.search(SearchLanguage.EN, query, null, 21);
+            }
+            long[] nanos = new long[ITERATIONS];
+            ProductSearchResult result = null;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long begin = System.nanoTime();
+                result = productSearchRepository.search(SearchLanguage.EN, query, null, 21);
+                nanos[i] = System.nanoTime() - begin;
+            }
+            Arrays.sort(nanos);
+            Integer matches = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM product WHERE search_en @@ websearch_to_tsquery('english', ?)",
+                    Integer.class, query);
+            log.info("Search '{}' matches={} truncated={} p50={} ms p99={} ms", query, matches, result.truncated(),
+                    "%.2f".formatted(nanos[ITERATIONS / 2] / (double) TimeUnit.MILLISECONDS.toNanos(1)),
+                    "%.2f".formatted(nanos[ITERATIONS * 99 / 100] / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+            assertFalse(result.hits().isEmpty());
+        }
+    }
+}
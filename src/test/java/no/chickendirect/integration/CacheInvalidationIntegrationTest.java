@@ -0,0 +1,146 @@
+package no.chickendirect.integration;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import no.chickendirect.ChickenDirectApplication;
+import no.chickendirect.customer.Customer;
+import no.chickendirect.customer.CustomerRepository;
+import no.chickendirect.customer.CustomerService;
+import no.chickendirect.customer.dto.CustomerRequest;
+import no.chickendirect.product.ProductService;
+import no.chickendirect.product.StockLedgerCompactor;
+import no.chickendirect.product.dto.ProductRequest;
+import no.chickendirect.product.dto.ProductUpdateRequest;
+import no.chickendirect.productstatus.ProductStatus;
+
+@SpringBootTest
+@Testcontainers
+class CacheInvalidationIntegrationTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+    }
+
+    private static ConfigurableApplicationContext otherNode;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockLedgerCompactor stockLedgerCompactor;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @BeforeEach
+    @SuppressWarnings("unused")
+    void startOtherNode() {
+        // Started after this context so the dev profile's clean-and-migrate has already run
+        if (otherNode == null) {
+            otherNode = new SpringApplicationBuilder(ChickenDirectApplication.class).run(
+                    "--spring.profiles.active=peer",
+                    "--spring.main.web-application-type=none",
+                    "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                    "--spring.datasource.username=" + postgres.getUsername(),
+                    "--spring.datasource.password=" + postgres.getPassword());
+        }
+    }
+
+    @AfterAll
+    @SuppressWarnings("unused")
+    static void stopOtherNode() {
+        if (otherNode != null) {
+            otherNode.close();
+            otherNode = null;
+        }
+    }
+
+    @Test
+    void productUpdate_shouldRefreshCatalogOnOtherNode() {
+        ProductService otherProductService = otherNode.getBean(ProductService.class);
+        Long productId = productService.createProduct(new ProductRequest(
+                "Broadcast Chicken", "Before", BigDecimal.valueOf(100), ProductStatus.IN_STOCK, 10)).id();
+        awaitTrue(() -> otherProductService.getAllProducts().stream().anyMatch(p -> p.id().equals(productId)));
+
+        productService.updateProduct(productId, new ProductUpdateRequest("Renamed Chicken", null, null, null, null));
+
+        awaitTrue(() -> otherProductService.getProduct(productId).name().equals("Renamed Chicken"));
+    }
+
+    @Test
+    void stockChanges_shouldRefreshCatalogOnOtherNode() {
+        ProductService otherProductService = otherNode.getBean(ProductService.class);
+        Long productId = productService.createProduct(new ProductRequest(
+                "Ledger Broadcast Chicken", "Stock", BigDecimal.valueOf(100), ProductStatus.IN_STOCK, 10)).id();
+        awaitTrue(() -> otherProductService.getAllProducts().stream().anyMatch(p -> p.id().equals(productId)));
+
+        productService.reserveStock(productId, 4);
+        stockLedgerCompactor.compact();
+        awaitTrue(() -> otherProductService.getProduct(productId).quantityOnHand() == 6);
+
+        productService.reserveStock(productId, 6);
+        awaitTrue(() -> otherProductService.getProduct(productId).status() == ProductStatus.OUT_OF_STOCK);
+    }
+
+    @Test
+    void customerUpdate_shouldEvictSecondLevelCacheOnOtherNode() {
+        CustomerRepository otherCustomerRepository = otherNode.getBean(CustomerRepository.class);
+        String email = "peer+" + UUID.randomUUID() + "@example.com";
+        Long customerId = customerService.createCustomer(new CustomerRequest("Before", "12345678", email)).id();
+        assertEquals("Before", otherCustomerRepository.findById(customerId).map(Customer::getName).orElseThrow());
+        assertTrue(otherCustomerRepository.findByEmail(email).isPresent());
+
+        String newEmail = "moved+" + UUID.randomUUID() + "@example.com";
+        customerService.updateCustomer(customerId, new CustomerRequest("After", "12345678", newEmail));
+
+        awaitTrue(() -> otherCustomerRepository.findById(customerId)
+                .map(Customer::getName)
+                .filter("After"::equals)
+                .isPresent());
+        assertTrue(otherCustomerRepository.findByEmail(email).isEmpty());
+        assertEquals(customerId, otherCustomerRepository.findByEmail(newEmail).map(Customer::getId).orElseThrow());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package no.chickendirect.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import no.chickendirect.fulfilment.FulfilmentService;
+import no.chickendirect.fulfilment.dto.ClaimedOrderResponse;
+import no.chickendirect.fulfilment.dto.FulfilmentClaimRequest;
+import no.chickendirect.fulfilment.dto.FulfilmentCompletionRequest;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class FulfilmentIntegrationTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+    }
+
+    private static final int BATCH_SIZE = 10;
+    private static final long PACKING_MILLIS = 25;
+
+    @Autowired
+    private FulfilmentService fulfilmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void concurrentWorkers_shouldClaimDisjointBatchesAndCompleteEveryOrderOnce() throws Exception {
+        List<Long> orderIds = insertUnshippedOrders(200);
+
+        DrainResult result = drainWith(4);
+
+        assertEquals(0, result.duplicateClaims());
+        for (Long orderId : orderIds) {
+            assertEquals(1, result.completions().getOrDefault(orderId, 0), "completions of order " + orderId);
+        }
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE id = ANY(?) AND NOT is_shipped",
+                Integer.class, (Object) orderIds.toArray(Long[]::new)));
+    }
+
+    @Test
+    void expiredLease_shouldBeReclaimedByAnotherWorker() {
+        insertUnshippedOrders(5);
+
+        List<Long> claimedByA = claim("worker-a", 500);
+        assertTrue(claimedByA.size() >= 5);
+        assertTrue(claim("worker-b", 500).isEmpty());
+
+        jdbcTemplate.update("UPDATE orders SET claim_expires_at = now() - interval '1 minute' WHERE claimed_by = 'worker-a'");
+
+        List<Long> claimedByB = claim("worker-b", 500);
+        assertEquals(Set.copyOf(claimedByA), Set.copyOf(claimedByB));
+
+        List<Long> completedByA = fulfilmentService
+                .completeOrders(new FulfilmentCompletionRequest("worker-a", claimedByA))
+                .orderIds();
+        assertTrue(completedByA.isEmpty());
+
+        List<Long> completedByB = fulfilmentService
+                .completeOrders(new FulfilmentCompletionRequest("worker-b", claimedByB))
+                .orderIds();
+        assertEquals(claimedByB.size(), completedByB.size());
+    }
+
+    @Test
+    void pickList_shouldSumUnshippedQuantitiesPerLocationAndProduct() throws Exception {
+        Long productId = jdbcTemplate.queryForObject("""
+                INSERT INTO product (name, price, status, stock_snapshot_quantity)
+                VALUES ('Pick, "Special" Wings', 99.00, 'IN_STOCK', 100)
+                RETURNING id
+                """, Long.class);
+        insertPickListOrder(productId, 3, false);
+        insertPickListOrder(productId, 4, false);
+        insertPickListOrder(productId, 50, true);
+
+        String csv = mockMvc.perform(get("/api/fulfilment/pick-list"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(csv.startsWith("shippingCity,shippingPostalCode,productId,productName,totalQuantity\r\n"));
+        assertTrue(csv.contains("Pickby,9999," + productId + ",\"Pick, \"\"Special\"\" Wings\",7\r\n"), csv);
+
+        String ndjson = mockMvc.perform(get("/api/fulfilment/pick-list").param("format", "ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(ndjson.contains("{\"shippingCity\":\"Pickby\",\"shippingPostalCode\":\"9999\",\"productId\":"
+                + productId + ",\"productName\":\"Pick, \\\"Special\\\" Wings\",\"totalQuantity\":7}\n"), ndjson);
+    }
+
+    @Test
+    void pickList_withUnknownFormat_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/fulfilment/pick-list").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private DrainResult drainWith(int workers) throws Exception {
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        Map<Long, Integer> completions = new ConcurrentHashMap<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                String workerId = "worker-" + workers + "-" + w;
+                futures.add(executor.submit(() -> {
+                    List<Long> batch;
+                    while (!(batch = claim(workerId, BATCH_SIZE)).isEmpty()) {
+                        batch.forEach(id -> {
+                            if (!seen.add(id)) {
+                                duplicates.incrementAndGet();
+                            }
+                        });
+                        Thread.sleep(PACKING_MILLIS);
+                        fulfilmentService
+                                .completeOrders(new FulfilmentCompletionRequest(workerId, batch))
+                                .orderIds()
+                                .forEach(id -> completions.merge(id, 1, Integer::sum));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return new DrainResult(duplicates.get(), completions);
+    }
+
+    private List<Long> claim(String workerId, int batchSize) {
+        return fulfilmentService.claimOrders(new FulfilmentClaimRequest(workerId, batchSize, 60))
+                .orders().stream()
+                .map(ClaimedOrderResponse::orderId)
+                .toList();
+    }
+
+    private List<Long> insertUnshippedOrders(int count) {
+        return jdbcTemplate.queryForList("""
+                INSERT INTO orders (creation_date, total_price, shipping_charge, is_shipped,
+                                    shipping_street, shipping_city, shipping_postal_code, shipping_country,
+                                    customer_name, customer_email, customer_phone)
+                SELECT now() - make_interval(secs => g), 100, 10, FALSE,
+                       'Pakkveien 1', 'Oslo', '0150', 'Norway',
+                       'Worker Test', 'worker@example.com', '12345678'
+                FROM generate_series(1, ?) AS g
+                RETURNING id
+                """, Long.class, count);
+    }
+
+    private void insertPickListOrder(Long productId, int quantity, boolean shipped) {
+        Long orderId = jdbcTemplate.queryForObject("""
+                INSERT INTO orders (creation_date, total_price, shipping_charge, is_shipped,
+                                    shipping_street, shipping_city, shipping_postal_code, shipping_country,
+                                    customer_name, customer_email, customer_phone)
+                VALUES (now(), 100, 10, ?, 'Plukkveien 2', 'Pickby', '9999', 'Norway',
+                        'Pick Test', 'pick@example.com', '12345678')
+                RETURNING id
+                """, Long.class, shipped);
+        jdbcTemplate.update("""
+                INSERT INTO order_item (quantity, order_id, product_id, unit_price, product_name)
+                SELECT ?, ?, id, price, name FROM product WHERE id = ?
+                """, quantity, orderId, productId);
+    }
+
+    private record DrainResult(int duplicateClaims, Map<Long, Integer> completions) {
+    }
+}
@@ -0,0 +1,233 @@
+package no.chickendirect.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import no.chickendirect.exception.InsufficientStockException;
+import no.chickendirect.orderitem.OrderItemService;
+import no.chickendirect.orderitem.dto.OrderItemRequest;
+import no.chickendirect.product.HotInventory;
+import no.chickendirect.product.ProductService;
+
+@SpringBootTest
+@Testcontainers
+class HotInventoryIntegrationTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+        registry.add("inventory.hot.lease-size", () -> 20);
+        // Flushed by the tests themselves, so a scheduled heartbeat never renews a lease a test lets expire
+        registry.add("inventory.hot.flush-interval", () -> "1h");
+    }
+
+    @Autowired
+    private HotInventory hotInventory;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentBuyers_onHotProduct_shouldNeverOversell() throws Exception {
+        int stock = 50;
+        int buyers = 200;
+        Long productId = insertProduct(stock);
+        Long orderId = insertOrder();
+        hotInventory.enable(productId);
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(buyers)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < buyers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderItemService.createOrderItem(new OrderItemRequest(productId, 1, orderId));
+                        sold.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        hotInventory.flush();
+        hotInventory.disable(productId);
+
+        assertEquals(stock, sold.get());
+        assertEquals(buyers - stock, rejected.get());
+        assertEquals(0, quantityOnHand(productId));
+        assertEquals("OUT_OF_STOCK", jdbcTemplate.queryForObject(
+                "SELECT status FROM product WHERE id = ?", String.class, productId));
+        assertEquals(stock, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_item WHERE product_id = ?", Integer.class, productId));
+        assertEquals(0, leaseRows(productId));
+    }
+
+    @Test
+    void flush_shouldFoldReservationLogIntoLease() {
+        Long productId = insertProduct(100);
+        hotInventory.enable(productId);
+
+        for (int i = 0; i < 3; i++) {
+            transactionTemplate.executeWithoutResult(status -> productService.reserveStock(productId, 2));
+        }
+        hotInventory.flush();
+
+        assertEquals(14, jdbcTemplate.queryForObject(
+                "SELECT quantity FROM hot_stock_lease WHERE product_id = ? AND owner = ?",
+                Integer.class, productId, hotInventory.getOwner()));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM hot_stock_reservation WHERE product_id = ?", Integer.class, productId));
+        assertEquals(80, quantityOnHand(productId));
+
+        hotInventory.disable(productId);
+        assertEquals(94, quantityOnHand(productId));
+    }
+
+    @Test
+    void rolledBackPurchase_shouldReturnUnitsToCounter() {
+        Long productId = insertProduct(5);
+        hotInventory.enable(productId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.reserveStock(productId, 5);
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> productService.reserveStock(productId, 5));
+        assertThrows(InsufficientStockException.class, () -> transactionTemplate
+                .executeWithoutResult(status -> productService.reserveStock(productId, 1)));
+
+        hotInventory.disable(productId);
+        assertEquals(0, quantityOnHand(productId));
+    }
+
+    @Test
+    void leaseLeftByCrashedInstance_shouldReturnOnlyUnsoldUnitsOnceExpired() {
+        Long productId = insertProduct(90);
+        jdbcTemplate.update("""
+                INSERT INTO hot_stock_lease (product_id, owner, quantity, updated_at)
+                VALUES (?, 'crashed-node', 10, now() - INTERVAL '1 hour')
+                """, productId);
+        jdbcTemplate.update("INSERT INTO hot_stock_reservation (product_id, owner, quantity) VALUES (?, 'crashed-node', 3)",
+                productId);
+        jdbcTemplate.update("INSERT INTO hot_stock_lease (product_id, owner, quantity) VALUES (?, 'live-node', 5)",
+                productId);
+
+        hotInventory.reclaimExpiredLeases();
+
+        assertEquals(97, quantityOnHand(productId));
+        assertEquals(1, leaseRows(productId));
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT quantity FROM hot_stock_lease WHERE product_id = ? AND owner = 'live-node'",
+                Integer.class, productId));
+    }
+
+    @Test
+    void reserve_afterAnotherInstanceReclaimedTheLease_shouldFallBackToLedger() {
+        Long productId = insertProduct(30);
+        hotInventory.enable(productId);
+        transactionTemplate.executeWithoutResult(status -> productService.reserveStock(productId, 2));
+        // This owner missed its heartbeat; its counter still holds the 18 units left of the lease
+        jdbcTemplate.update("UPDATE hot_stock_lease SET updated_at = now() - INTERVAL '1 hour' WHERE product_id = ?",
+                productId);
+        hotInventory.reclaimExpiredLeases();
+        assertEquals(28, quantityOnHand(productId));
+
+        transactionTemplate.executeWithoutResult(status -> productService.reserveStock(productId, 4));
+
+        assertEquals(24, quantityOnHand(productId));
+        assertEquals(0, leaseRows(productId));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM hot_stock_reservation WHERE product_id = ?", Integer.class, productId));
+
+        hotInventory.disable(productId);
+        assertEquals(24, quantityOnHand(productId));
+    }
+
+    @Test
+    void reserve_afterDisable_shouldFallBackToLedger() {
+        Long productId = insertProduct(10);
+        hotInventory.enable(productId);
+        hotInventory.disable(productId);
+
+        transactionTemplate.executeWithoutResult(status -> productService.reserveStock(productId, 4));
+
+        assertEquals(6, quantityOnHand(productId));
+        assertEquals(0, leaseRows(productId));
+    }
+
+    private Long insertProduct(int stock) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO product (name, price, status, stock_snapshot_quantity)
+                VALUES ('Whole Chicken - Fresh', 129.00, 'IN_STOCK', ?)
+                RETURNING id
+                """, Long.class, stock);
+    }
+
+    private Long insertOrder() {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO orders (total_price, shipping_charge, is_shipped,
+                                    shipping_street, shipping_city, shipping_postal_code, shipping_country,
+                                    customer_name, customer_email, customer_phone)
+                VALUES (100, 10, FALSE, 'Hotveien 1', 'Oslo', '0150', 'Norway',
+                        'Hot Test', 'hot@example.com', '12345678')
+                RETURNING id
+                """, Long.class);
+    }
+
+    private int quantityOnHand(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity_on_hand FROM product_stock WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private int leaseRows(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM hot_stock_lease WHERE product_id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,87 @@
+package no.chickendirect.integration;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import no.chickendirect.product.Product;
+import no.chickendirect.product.ProductRepository;
+import no.chickendirect.productstatus.ProductStatus;
+
+@SpringBootTest
+@Testcontainers
+class IdAllocationIntegrationTest {
+
+    private static final int ALLOCATION_SIZE = 20;
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+        registry.add("ids.allocation-size", () -> ALLOCATION_SIZE);
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void allocationSize_shouldBeAppliedToTheSequencesAndFollowedByHibernate() {
+        List<Long> increments = jdbcTemplate.queryForList("""
+                SELECT increment_by
+                FROM pg_sequences
+                WHERE sequencename IN ('customer_id_seq', 'address_id_seq', 'product_id_seq',
+                                       'orders_id_seq', 'order_item_id_seq')
+                """, Long.class);
+        assertEquals(List.of(20L, 20L, 20L, 20L, 20L), increments);
+
+        // Plain SQL takes the next id from the sequence too. A block Hibernate sized differently from the
+        // sequence's increment would reach back over it.
+        Long sqlId = jdbcTemplate.queryForObject("""
+                INSERT INTO product (name, description, price, status, stock_snapshot_quantity)
+                VALUES ('Inserted by SQL', 'Inserted by SQL', 10, 'OUT_OF_STOCK', 0)
+                RETURNING id
+                """, Long.class);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ALLOCATION_SIZE + 1; i++) {
+            ids.add(productRepository.save(product("Allocated " + i)).getId());
+        }
+
+        assertFalse(ids.contains(sqlId), () -> "ids " + ids + " include " + sqlId);
+        assertEquals(ids.size(), ids.stream().distinct().count());
+    }
+
+    private static Product product(String name) {
+        return Product.builder()
+                .name(name)
+                .description(name)
+                .price(BigDecimal.TEN)
+                .status(ProductStatus.OUT_OF_STOCK)
+                .build();
+    }
+}
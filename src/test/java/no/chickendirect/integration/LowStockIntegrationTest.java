@@ -0,0 +1,167 @@
+package no.chickendirect.integration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.chickendirect.product.LowStockEvent;
+import no.chickendirect.product.LowStockProperties;
+import no.chickendirect.product.LowStockRepository;
+import no.chickendirect.product.LowStockWatcher;
+import no.chickendirect.product.dto.LowStockProduct;
+
+// Each watcher built here stands in for another node, or for this one after a restart: they share nothing
+// but the database
+@SpringBootTest
+@Testcontainers
+class LowStockIntegrationTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+        // Only the scan at startup, so the application's own watcher never alerts a product under test
+        registry.add("inventory.low-stock.scan-interval", () -> "1h");
+    }
+
+    @Autowired
+    private LowStockRepository lowStockRepository;
+
+    @Autowired
+    private LowStockWatcher lowStockWatcher;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void waitForStartupScan() {
+        // Synchronized, so this returns once the scheduler's startup scan is done
+        lowStockWatcher.scan();
+    }
+
+    @Test
+    void scan_shouldAlertEachLowProductOnceAcrossNodesAndRestarts() {
+        Long wings = insertWatchedProduct(3, 5);
+
+        newWatcher().scan();
+        LowStockWatcher restarted = newWatcher();
+        restarted.scan();
+
+        assertEquals(List.of(wings), alertedIds());
+        assertTrue(restarted.getReport().products().stream().anyMatch(product -> product.id().equals(wings)));
+
+        // Recovered, then low again: alerted a second time
+        insertMovement(wings, 10);
+        restarted.scan();
+        assertTrue(restarted.getReport().products().stream().noneMatch(product -> product.id().equals(wings)));
+        insertMovement(wings, -10);
+        restarted.scan();
+
+        assertEquals(List.of(wings, wings), alertedIds());
+    }
+
+    @Test
+    void scan_whileAnotherNodeHoldsTheScanLock_shouldOnlyReadTheReport() throws Exception {
+        Long thighs = insertWatchedProduct(2, 5);
+        LowStockWatcher watcher = newWatcher();
+
+        try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+            other.setAutoCommit(false);
+            statement.execute("SELECT pg_advisory_xact_lock(hashtext('low_stock_scan'), 0)");
+
+            watcher.scan();
+
+            assertTrue(alertedIds().isEmpty());
+            assertTrue(watcher.getReport().products().stream().noneMatch(product -> product.id().equals(thighs)));
+            other.rollback();
+        }
+        watcher.scan();
+
+        assertEquals(List.of(thighs), alertedIds());
+    }
+
+    @Test
+    void scan_shouldSeeAMovementThatCommitsAfterAHigherIdWasRead() throws Exception {
+        Long late = insertWatchedProduct(10, 5);
+        Long early = insertWatchedProduct(10, 5);
+        LowStockWatcher watcher = newWatcher();
+
+        try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+            other.setAutoCommit(false);
+            statement.execute("INSERT INTO stock_movement (product_id, movement_type, quantity_delta) "
+                    + "VALUES (" + late + ", 'ADJUSTMENT', -8)");
+            insertMovement(early, -8);
+
+            watcher.scan();
+            assertEquals(List.of(early), alertedIds());
+
+            other.commit();
+        }
+        watcher.scan();
+
+        assertEquals(List.of(early, late), alertedIds());
+    }
+
+    private LowStockWatcher newWatcher() {
+        return new LowStockWatcher(lowStockRepository, events::add, new SimpleMeterRegistry(),
+                new LowStockProperties(Duration.ofMinutes(1)));
+    }
+
+    private List<Long> alertedIds() {
+        return events.stream()
+                .map(LowStockEvent.class::cast)
+                .flatMap(event -> event.products().stream())
+                .map(LowStockProduct::id)
+                .toList();
+    }
+
+    private Long insertWatchedProduct(int quantity, int reorderThreshold) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO product (name, description, price, status, stock_snapshot_quantity, reorder_threshold)
+                VALUES (?, 'Watched', 50, 'IN_STOCK', ?, ?)
+                RETURNING id
+                """, Long.class, "Low " + UUID.randomUUID(), quantity, reorderThreshold);
+    }
+
+    private void insertMovement(Long productId, int quantityDelta) {
+        jdbcTemplate.update("""
+                INSERT INTO stock_movement (product_id, movement_type, quantity_delta)
+                VALUES (?, 'ADJUSTMENT', ?)
+                """, productId, quantityDelta);
+    }
+}
@@ -1,29 +1,57 @@
 package no.chickendirect.integration;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.EntityManagerFactory;
+
 import no.chickendirect.address.dto.AddressRequest;
 import no.chickendirect.customer.dto.CustomerRequest;
+import no.chickendirect.order.dto.OrderBulkShipRequest;
+import no.chickendirect.order.dto.OrderLineRequest;
 import no.chickendirect.order.dto.OrderRequest;
+import no.chickendirect.order.dto.OrderSearchCriteria;
+import no.chickendirect.product.dto.ProductRequest;
+import no.chickendirect.product.dto.ProductUpdateRequest;
+import no.chickendirect.productstatus.ProductStatus;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -45,11 +73,15 @@ class OrderIntegrationTest {
         registry.add("spring.datasource.username", postgres::getUsername);
         registry.add("spring.datasource.password", postgres::getPassword);
         registry.add("spring.flyway.enabled", () -> true);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> true);
     }
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private Long customerId;
@@ -84,7 +116,8 @@ class OrderIntegrationTest {
                 addressId,
                 BigDecimal.valueOf(500),
                 BigDecimal.valueOf(50),
-                false
+                false,
+                null
         );
 
         String response = mockMvc.perform(post("/api/orders")
@@ -102,6 +135,100 @@ class OrderIntegrationTest {
                 .andExpect(jsonPath("$.customer.id").value(customerId));
     }
 
+    @Test
+    void createOrder_withInlineItems_shouldPersistAllLinesAndLoadProductsOnce() throws Exception {
+        Long wingsId = createProduct("Inline Wings", BigDecimal.valueOf(49));
+        Long thighsId = createProduct("Inline Thighs", BigDecimal.valueOf(79));
+        List<OrderLineRequest> lines = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lines.add(new OrderLineRequest(i % 2 == 0 ? wingsId : thighsId, i + 1));
+        }
+        OrderRequest orderRequest = new OrderRequest(
+                customerId,
+                addressId,
+                BigDecimal.valueOf(500),
+                BigDecimal.valueOf(50),
+                false,
+                lines
+        );
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String response = mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.items.length()").value(20))
+                .andExpect(jsonPath("$.items[0].productId").value(wingsId))
+                .andExpect(jsonPath("$.items[1].lineTotal").value(158))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(21, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+
+        Long orderId = objectMapper.readTree(response).get("id").asLong();
+        mockMvc.perform(get("/api/orders/{id}", orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(20));
+    }
+
+    @Test
+    void getOrder_afterPriceChange_shouldKeepPurchasePrice() throws Exception {
+        Long wingsId = createProduct("Snapshot Wings", BigDecimal.valueOf(49));
+        OrderRequest orderRequest = new OrderRequest(
+                customerId,
+                addressId,
+                BigDecimal.valueOf(500),
+                BigDecimal.valueOf(50),
+                false,
+                List.of(new OrderLineRequest(wingsId, 2))
+        );
+        String response = mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long orderId = objectMapper.readTree(response).get("id").asLong();
+
+        ProductUpdateRequest priceChange = new ProductUpdateRequest("Renamed Wings", null, BigDecimal.valueOf(99), null, null);
+        mockMvc.perform(put("/api/products/{id}", wingsId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(priceChange)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/orders/{id}", orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].productName").value("Snapshot Wings"))
+                .andExpect(jsonPath("$.items[0].unitPrice").value(49))
+                .andExpect(jsonPath("$.items[0].lineTotal").value(98));
+    }
+
+    @Test
+    void createOrder_withUnknownProduct_shouldReturn404AndPersistNothing() throws Exception {
+        Long wingsId = createProduct("Inline Wings", BigDecimal.valueOf(49));
+        OrderRequest orderRequest = new OrderRequest(
+                customerId,
+                addressId,
+                BigDecimal.valueOf(500),
+                BigDecimal.valueOf(50),
+                false,
+                List.of(new OrderLineRequest(wingsId, 1), new OrderLineRequest(999_999L, 1))
+        );
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isNotFound());
+
+        assertEquals(0, statistics.getEntityInsertCount());
+    }
+
     @Test
     void deleteCustomer_withOrders_shouldSucceedAndKeepOrder() throws Exception {
         // Create Order
@@ -110,7 +237,8 @@ class OrderIntegrationTest {
                 addressId,
                 BigDecimal.valueOf(500),
                 BigDecimal.valueOf(50),
-                false
+                false,
+                null
         );
 
         String response = mockMvc.perform(post("/api/orders")
@@ -133,9 +261,214 @@ class OrderIntegrationTest {
                 .andExpect(jsonPath("$.customer.email").exists());
     }
 
+    @Test
+    void getAllOrders_queryCountShouldNotGrowWithPageSize() throws Exception {
+        long smallPageQueries = countStatementsForPage(2);
+        long largePageQueries = countStatementsForPage(20);
+
+        assertEquals(smallPageQueries, largePageQueries);
+        assertTrue(largePageQueries <= 2, "expected at most 2 statements per page, got " + largePageQueries);
+    }
+
+    @Test
+    void getAllOrders_cursorShouldWalkPagesWithoutOverlap() throws Exception {
+        String firstPage = mockMvc.perform(get("/api/orders").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode first = objectMapper.readTree(firstPage);
+        String secondPage = mockMvc.perform(get("/api/orders")
+                        .param("size", "3")
+                        .param("cursor", first.get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        Set<Long> firstIds = new HashSet<>();
+        first.get("items").forEach(item -> firstIds.add(item.get("id").asLong()));
+        objectMapper.readTree(secondPage).get("items")
+                .forEach(item -> assertFalse(firstIds.contains(item.get("id").asLong())));
+    }
+
+    @Test
+    void getAllOrders_invalidCursor_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/orders").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchOrders_shouldFilterByCustomerEmailAndShippedStatus() throws Exception {
+        createOrder(false);
+        createOrder(true);
+
+        String email = objectMapper.readTree(mockMvc.perform(get("/api/customers/{id}", customerId))
+                        .andReturn().getResponse().getContentAsString())
+                .get("email").asText();
+
+        mockMvc.perform(get("/api/orders/search")
+                        .param("customerEmail", email.toUpperCase())
+                        .param("isShipped", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].customer.id").value(customerId))
+                .andExpect(jsonPath("$.items[0].isShipped").value(false));
+
+        mockMvc.perform(get("/api/orders/search")
+                        .param("customerId", String.valueOf(customerId))
+                        .param("shippingCity", "Order City")
+                        .param("shippingPostalCode", "1234"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void searchOrders_byCreationDateRange_shouldExcludeOrdersOutsideRange() throws Exception {
+        createOrder(false);
+
+        mockMvc.perform(get("/api/orders/search")
+                        .param("customerId", String.valueOf(customerId))
+                        .param("createdFrom", "2000-01-01T00:00:00")
+                        .param("createdTo", "2000-12-31T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void bulkShip_byIds_shouldReportOutcomePerId() throws Exception {
+        Long first = createOrder(false);
+        Long second = createOrder(true);
+
+        String body = objectMapper.writeValueAsString(
+                new OrderBulkShipRequest(List.of(first, second, 999_999L), null, true));
+
+        mockMvc.perform(post("/api/orders/bulk-ship")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.results[0].orderId").value(first))
+                .andExpect(jsonPath("$.results[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$.results[1].outcome").value("UNCHANGED"))
+                .andExpect(jsonPath("$.results[2].outcome").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/api/orders/{id}", first))
+                .andExpect(jsonPath("$.isShipped").value(true));
+    }
+
+    @Test
+    void bulkShip_byFilter_shouldUpdateOnlyMatchingOrders() throws Exception {
+        Long first = createOrder(false);
+        Long second = createOrder(false);
+
+        OrderSearchCriteria filter = new OrderSearchCriteria(false, null, null, customerId, null, null, null);
+        String body = objectMapper.writeValueAsString(new OrderBulkShipRequest(null, filter, true));
+
+        mockMvc.perform(post("/api/orders/bulk-ship")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.results[*].orderId", containsInAnyOrder(first.intValue(), second.intValue())));
+    }
+
+    @Test
+    void bulkShip_withoutIdsOrFilter_shouldReturn400() throws Exception {
+        String body = objectMapper.writeValueAsString(new OrderBulkShipRequest(List.of(), null, true));
+
+        mockMvc.perform(post("/api/orders/bulk-ship")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportOrders_shouldStreamOneRowPerLineAsNdjsonOrGzippedCsv() throws Exception {
+        Long productId = createProduct("Export Wings", BigDecimal.valueOf(25));
+        OrderRequest orderRequest = new OrderRequest(customerId, addressId, BigDecimal.valueOf(100),
+                BigDecimal.valueOf(50), false, List.of(new OrderLineRequest(productId, 2)));
+        String created = mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long orderId = objectMapper.readTree(created).get("id").asLong();
+        Long emptyOrderId = createOrder(true);
+
+        String ndjson = mockMvc.perform(get("/api/orders/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            JsonNode row = objectMapper.readTree(line);
+            if (row.get("orderId").asLong() == orderId || row.get("orderId").asLong() == emptyOrderId) {
+                rows.add(row);
+            }
+        }
+        assertEquals(2, rows.size());
+        assertEquals("Export Wings", rows.get(0).get("productName").asText());
+        assertEquals(2, rows.get(0).get("quantity").asInt());
+        assertTrue(rows.get(1).get("orderItemId").isNull());
+        assertTrue(rows.get(1).get("isShipped").asBoolean());
+
+        byte[] gzipped = mockMvc.perform(get("/api/orders/export").param("format", "csv").param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("orders.csv.gz")))
+                .andReturn().getResponse().getContentAsByteArray();
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(csv.startsWith("orderId,creationDate,customerId,"));
+        assertTrue(csv.contains("\r\n" + orderId + ","), csv);
+    }
+
     @Test
     void getOrder_notFound_shouldReturn404() throws Exception {
         mockMvc.perform(get("/api/orders/{id}", 9999L))
                 .andExpect(status().isNotFound());
     }
+
+    private Long createOrder(boolean isShipped) throws Exception {
+        OrderRequest orderRequest = new OrderRequest(
+                customerId,
+                addressId,
+                BigDecimal.valueOf(500),
+                BigDecimal.valueOf(50),
+                isShipped,
+                null
+        );
+
+        String response = mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private Long createProduct(String name, BigDecimal price) throws Exception {
+        ProductRequest productRequest = new ProductRequest(name, "Test product", price, ProductStatus.IN_STOCK, 1000);
+        String response = mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private long countStatementsForPage(int size) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/orders").param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(size));
+
+        return statistics.getPrepareStatementCount();
+    }
 }
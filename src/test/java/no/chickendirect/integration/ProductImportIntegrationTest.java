@@ -0,0 +1,155 @@
+package no.chickendirect.integration;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import no.chickendirect.product.ProductCatalog;
+import no.chickendirect.product.ProductService;
+import no.chickendirect.product.dto.ProductRequest;
+import no.chickendirect.product.dto.ProductResponse;
+import no.chickendirect.productstatus.ProductStatus;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ProductImportIntegrationTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importCsv_shouldCreateValidRowsWithStockAndReportRejects() throws Exception {
+        String tag = UUID.randomUUID().toString();
+        String csv = """
+                name,description,price,status,quantityOnHand
+                Wings %1$s,"Hot, ""extra""
+                spicy",49.90,IN_STOCK,10
+                Thighs %1$s,Boneless,-5,IN_STOCK,1
+                Breast %1$s,Fillet,89,DISCONTINUED,
+                ,Nameless,10,IN_STOCK,1
+                """.formatted(tag);
+
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.rejects[0].row").value(2))
+                .andExpect(jsonPath("$.rejects[0].errors[0]").value("price: must be greater than or equal to 0"))
+                .andExpect(jsonPath("$.rejects[1].row").value(4));
+
+        ProductResponse wings = findInCatalog("Wings " + tag);
+        assertEquals("Hot, \"extra\"\nspicy", wings.description());
+        assertEquals(0, new BigDecimal("49.90").compareTo(wings.price()));
+        assertEquals(10, wings.quantityOnHand());
+        assertEquals(List.of("RECEIPT:10"), movements(wings.id()));
+
+        ProductResponse breast = findInCatalog("Breast " + tag);
+        assertEquals(ProductStatus.DISCONTINUED, breast.status());
+        assertEquals(0, breast.quantityOnHand());
+        assertEquals(List.of(), movements(breast.id()));
+    }
+
+    @Test
+    void importNdjson_shouldRejectMalformedLinesAndKeepIdsClearOfApiCreatedProducts() throws Exception {
+        String tag = UUID.randomUUID().toString();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            ndjson.append("{\"name\":\"Bulk %s %d\",\"description\":\"Imported\",\"price\":12.5,\"status\":\"IN_STOCK\",\"quantityOnHand\":%d}\n"
+                    .formatted(tag, i, i));
+        }
+        ndjson.append("{not json\n");
+
+        Long before = productService.createProduct(new ProductRequest(
+                "Before " + tag, "Api", BigDecimal.ONE, ProductStatus.IN_STOCK, 1)).id();
+        mockMvc.perform(post("/api/products/import")
+                        .param("format", "ndjson")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(120))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejects[0].row").value(121));
+        Long after = productService.createProduct(new ProductRequest(
+                "After " + tag, "Api", BigDecimal.ONE, ProductStatus.IN_STOCK, 1)).id();
+
+        List<Long> importedIds = jdbcTemplate.queryForList(
+                "SELECT id FROM product WHERE name LIKE ? ORDER BY id", Long.class, "Bulk " + tag + "%");
+        assertEquals(120, importedIds.size());
+        // Three pooled blocks, numbered without the gaps a per-row nextval would leave
+        assertTrue(importedIds.getLast() - importedIds.getFirst() < 150, importedIds.toString());
+        assertTrue(importedIds.stream().noneMatch(id -> id.equals(before) || id.equals(after)));
+        assertEquals(119, findInCatalog("Bulk " + tag + " 119").quantityOnHand());
+    }
+
+    @Test
+    void createProduct_withBlankName_shouldNowBeRejectedUpFront() throws Exception {
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"\",\"description\":\"x\",\"price\":1,\"status\":\"IN_STOCK\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fieldErrors.name").exists());
+    }
+
+    private ProductResponse findInCatalog(String name) {
+        return productCatalog.findAll().stream()
+                .filter(product -> product.name().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private List<String> movements(Long productId) {
+        return jdbcTemplate.queryForList("""
+                SELECT movement_type || ':' || quantity_delta
+                FROM stock_movement
+                WHERE product_id = ?
+                ORDER BY id
+                """, String.class, productId);
+    }
+}
@@ -1,17 +1,35 @@
 package no.chickendirect.integration;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -20,7 +38,16 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import no.chickendirect.exception.InsufficientStockException;
+import no.chickendirect.exception.ProductNotFoundException;
+import no.chickendirect.orderitem.OrderItemService;
+import no.chickendirect.orderitem.dto.OrderItemRequest;
+import no.chickendirect.product.LowStockWatcher;
+import no.chickendirect.product.ProductCatalog;
+import no.chickendirect.product.dto.ProductBulkUpdateRequest;
+import no.chickendirect.product.dto.ProductFilter;
 import no.chickendirect.product.dto.ProductRequest;
+import no.chickendirect.product.dto.ProductUpdateRequest;
 import no.chickendirect.productstatus.ProductStatus;
 
 @SpringBootTest
@@ -43,11 +70,24 @@ class ProductIntegrationTest {
         registry.add("spring.datasource.username", postgres::getUsername);
         registry.add("spring.datasource.password", postgres::getPassword);
         registry.add("spring.flyway.enabled", () -> true);
+        registry.add("products.search.max-ranked-matches", () -> 2);
     }
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private LowStockWatcher lowStockWatcher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
@@ -78,6 +118,136 @@ class ProductIntegrationTest {
                 .andExpect(jsonPath("$.name").value("Integration Chicken"));
     }
 
+    @Test
+    void updateAndDeleteProduct_shouldPublishNewCatalogSnapshot() throws Exception {
+        ProductRequest request = new ProductRequest(
+                "Catalog Chicken",
+                "Before",
+                BigDecimal.valueOf(100),
+                ProductStatus.IN_STOCK,
+                10
+        );
+        String response = mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long id = objectMapper.readTree(response).get("id").asLong();
+        long version = productCatalog.version();
+
+        mockMvc.perform(put("/api/products/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ProductUpdateRequest(null, "After", BigDecimal.valueOf(80), null, 4))))
+                .andExpect(status().isOk());
+
+        assertTrue(productCatalog.version() > version);
+        mockMvc.perform(get("/api/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("After"))
+                .andExpect(jsonPath("$.price").value(80))
+                .andExpect(jsonPath("$.quantityOnHand").value(4));
+
+        mockMvc.perform(delete("/api/products/{id}", id))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/products/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deleteProduct_referencedByOrders_shouldKeepTheRowButLeaveTheCatalog() throws Exception {
+        String tag = "del" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        // A price band no other test uses keeps the listing to this test's rows
+        Long productId = insertProduct(tag + " Drumsticks", "Ordered before deletion", "7101.00", "IN_STOCK");
+        jdbcTemplate.update("UPDATE product SET stock_snapshot_quantity = 10 WHERE id = ?", productId);
+        Long orderId = jdbcTemplate.queryForObject("""
+                INSERT INTO orders (total_price, shipping_charge, is_shipped,
+                                    shipping_street, shipping_city, shipping_postal_code, shipping_country,
+                                    customer_name, customer_email, customer_phone)
+                VALUES (100, 10, FALSE, 'Slettveien 1', 'Oslo', '0150', 'Norway',
+                        'Delete Test', 'delete@example.com', '12345678')
+                RETURNING id
+                """, Long.class);
+        orderItemService.createOrderItem(new OrderItemRequest(productId, 2, orderId));
+        productCatalog.rebuild();
+
+        mockMvc.perform(delete("/api/products/{id}", productId))
+                .andExpect(status().isNoContent());
+
+        assertEquals("DISCONTINUED", jdbcTemplate.queryForObject(
+                "SELECT status FROM product WHERE id = ? AND deleted_at IS NOT NULL", String.class, productId));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_item WHERE product_id = ?", Integer.class, productId));
+        mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/products/{id}", productId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/products/search").param("q", tag))
+                .andExpect(jsonPath("$.items.length()").value(0));
+        mockMvc.perform(get("/api/products/autocomplete").param("q", tag))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/products/listing").param("minPrice", "7101").param("maxPrice", "7101"))
+                .andExpect(jsonPath("$.items.length()").value(0));
+        assertThrows(ProductNotFoundException.class,
+                () -> orderItemService.createOrderItem(new OrderItemRequest(productId, 1, orderId)));
+    }
+
+    @Test
+    void lowStock_shouldReportProductsAtOrBelowTheirThresholdFromLedgerMovements() throws Exception {
+        Long watched = insertProduct("Low Stock Wings", "Watched", "90.00", "IN_STOCK");
+        Long unwatched = insertProduct("Low Stock Thighs", "Not watched", "90.00", "IN_STOCK");
+        jdbcTemplate.update("UPDATE product SET stock_snapshot_quantity = 10 WHERE id IN (?, ?)", watched, unwatched);
+        Long orderId = jdbcTemplate.queryForObject("""
+                INSERT INTO orders (total_price, shipping_charge, is_shipped,
+                                    shipping_street, shipping_city, shipping_postal_code, shipping_country,
+                                    customer_name, customer_email, customer_phone)
+                VALUES (100, 10, FALSE, 'Lagerveien 1', 'Oslo', '0150', 'Norway',
+                        'Low Stock Test', 'lowstock@example.com', '12345678')
+                RETURNING id
+                """, Long.class);
+        mockMvc.perform(put("/api/products/{id}/reorder-threshold", watched)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"reorderThreshold\":5}"))
+                .andExpect(status().isNoContent());
+        lowStockWatcher.scan();
+        String entry = "$.products[?(@.id == " + watched + ")]";
+        mockMvc.perform(get("/api/products/low-stock"))
+                .andExpect(jsonPath(entry).isEmpty());
+
+        // The snapshot still says 10; only the ledger knows the stock is down to 4
+        orderItemService.createOrderItem(new OrderItemRequest(watched, 6, orderId));
+        orderItemService.createOrderItem(new OrderItemRequest(unwatched, 9, orderId));
+        lowStockWatcher.scan();
+
+        mockMvc.perform(get("/api/products/low-stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scannedAt").exists())
+                .andExpect(jsonPath(entry + ".quantityOnHand").value(4))
+                .andExpect(jsonPath(entry + ".reorderThreshold").value(5))
+                .andExpect(jsonPath("$.products[?(@.id == " + unwatched + ")]").isEmpty());
+
+        mockMvc.perform(put("/api/products/{id}", watched)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ProductUpdateRequest(null, null, null, null, 20))))
+                .andExpect(status().isOk());
+        lowStockWatcher.scan();
+
+        mockMvc.perform(get("/api/products/low-stock"))
+                .andExpect(jsonPath(entry).isEmpty());
+        mockMvc.perform(put("/api/products/{id}/reorder-threshold", watched)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"reorderThreshold\":-1}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/products/{id}/reorder-threshold", 9999L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"reorderThreshold\":1}"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getAllProducts_shouldReturnList() throws Exception {
         mockMvc.perform(get("/api/products"))
@@ -90,4 +260,335 @@ class ProductIntegrationTest {
         mockMvc.perform(get("/api/products/{id}", 9999L))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void concurrentBuyers_shouldNeverOversellStock() throws Exception {
+        int stock = 50;
+        int buyers = 200;
+        Long productId = jdbcTemplate.queryForObject("""
+                INSERT INTO product (name, price, status, stock_snapshot_quantity)
+                VALUES ('Contended Chicken', 100.00, 'IN_STOCK', ?)
+                RETURNING id
+                """, Long.class, stock);
+        Long orderId = jdbcTemplate.queryForObject("""
+                INSERT INTO orders (total_price, shipping_charge, is_shipped,
+                                    shipping_street, shipping_city, shipping_postal_code, shipping_country,
+                                    customer_name, customer_email, customer_phone)
+                VALUES (100, 10, FALSE, 'Stockveien 1', 'Oslo', '0150', 'Norway',
+                        'Stock Test', 'stock@example.com', '12345678')
+                RETURNING id
+                """, Long.class);
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long elapsedNanos;
+        try (ExecutorService executor = Executors.newFixedThreadPool(buyers)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < buyers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderItemService.createOrderItem(new OrderItemRequest(productId, 1, orderId));
+                        sold.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            elapsedNanos = System.nanoTime() - begin;
+        }
+
+        assertEquals(stock, sold.get());
+        assertEquals(buyers - stock, rejected.get());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT quantity_on_hand FROM product_stock WHERE product_id = ?", Integer.class, productId));
+        assertEquals("OUT_OF_STOCK", jdbcTemplate.queryForObject(
+                "SELECT status FROM product WHERE id = ?", String.class, productId));
+        assertEquals(stock, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_item WHERE product_id = ?", Integer.class, productId));
+        assertTrue(elapsedNanos < TimeUnit.SECONDS.toNanos(10),
+                "200 buyers took " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+    }
+
+    @Test
+    void bulkUpdate_byPercent_shouldRepriceOnlyMatchingProductsInOneStatement() throws Exception {
+        String prefix = "Frozen " + UUID.randomUUID() + " ";
+        Long nuggets = insertProduct(prefix + "Nuggets", "Bulk", "100.00", "IN_STOCK");
+        Long drumsticks = insertProduct(prefix + "Drumsticks", "Bulk", "49.90", "IN_STOCK");
+        Long discontinued = insertProduct(prefix + "Kiev", "Bulk", "80.00", "DISCONTINUED");
+        Long fresh = insertProduct("Fresh " + prefix, "Bulk", "100.00", "IN_STOCK");
+        // Inserted behind the catalog's back; the bulk update itself only reloads the products it changed
+        productCatalog.rebuild();
+        long version = productCatalog.version();
+
+        ProductBulkUpdateRequest request = new ProductBulkUpdateRequest(
+                new ProductFilter(ProductStatus.IN_STOCK, prefix.toLowerCase(), null, null),
+                BigDecimal.valueOf(8), null, null);
+        mockMvc.perform(post("/api/products/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.productIds[0]").value(nuggets))
+                .andExpect(jsonPath("$.productIds[1]").value(drumsticks));
+
+        assertTrue(productCatalog.version() > version);
+        mockMvc.perform(get("/api/products/{id}", nuggets))
+                .andExpect(jsonPath("$.price").value(108.00));
+        mockMvc.perform(get("/api/products/{id}", drumsticks))
+                .andExpect(jsonPath("$.price").value(53.89));
+        mockMvc.perform(get("/api/products/{id}", discontinued))
+                .andExpect(jsonPath("$.price").value(80.00));
+        mockMvc.perform(get("/api/products/{id}", fresh))
+                .andExpect(jsonPath("$.price").value(100.00));
+    }
+
+    @Test
+    void bulkUpdate_setStatusAndAbsoluteChange_shouldReportOnlyChangedProducts() throws Exception {
+        String prefix = "Live_Chicken " + UUID.randomUUID() + " ";
+        Long hen = insertProduct(prefix + "Hen", "Bulk", "300.00", "IN_STOCK");
+        Long rooster = insertProduct(prefix + "Rooster", "Bulk", "20.00", "DISCONTINUED");
+        // '_' in the prefix must match literally, not as a LIKE wildcard
+        Long lookalike = insertProduct(prefix.replace('_', 'X') + "Chick", "Bulk", "300.00", "IN_STOCK");
+        productCatalog.rebuild();
+
+        ProductBulkUpdateRequest discontinue = new ProductBulkUpdateRequest(
+                new ProductFilter(null, prefix, null, null), null, null, ProductStatus.DISCONTINUED);
+        mockMvc.perform(post("/api/products/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(discontinue)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.productIds[0]").value(hen));
+
+        ProductBulkUpdateRequest markdown = new ProductBulkUpdateRequest(
+                new ProductFilter(ProductStatus.DISCONTINUED, prefix, null, BigDecimal.valueOf(300)),
+                null, BigDecimal.valueOf(-50), null);
+        mockMvc.perform(post("/api/products/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(markdown)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2));
+
+        mockMvc.perform(get("/api/products/{id}", hen))
+                .andExpect(jsonPath("$.status").value("DISCONTINUED"))
+                .andExpect(jsonPath("$.price").value(250.00));
+        // Clamped at zero rather than going negative
+        mockMvc.perform(get("/api/products/{id}", rooster))
+                .andExpect(jsonPath("$.price").value(0));
+        mockMvc.perform(get("/api/products/{id}", lookalike))
+                .andExpect(jsonPath("$.status").value("IN_STOCK"));
+    }
+
+    @Test
+    void bulkUpdate_withoutFilterOrWithSeveralOperations_shouldReturn400() throws Exception {
+        ProductBulkUpdateRequest noFilter = new ProductBulkUpdateRequest(
+                new ProductFilter(null, " ", null, null), BigDecimal.TEN, null, null);
+        mockMvc.perform(post("/api/products/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(noFilter)))
+                .andExpect(status().isBadRequest());
+
+        ProductBulkUpdateRequest twoOperations = new ProductBulkUpdateRequest(
+                new ProductFilter(ProductStatus.IN_STOCK, null, null, null),
+                BigDecimal.TEN, null, ProductStatus.DISCONTINUED);
+        mockMvc.perform(post("/api/products/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(twoOperations)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchProducts_shouldStemRankNameMatchesFirstAndPageWithCursor() throws Exception {
+        String tag = "zq" + UUID.randomUUID().toString().replace("-", "");
+        Long inDescription = insertProduct("Crispy Batch", "Tender " + tag + " wings, lightly salted", "55.00", "IN_STOCK");
+        Long inName = insertProduct("Spicy " + tag + " Wing", "Marinated overnight", "99.00", "IN_STOCK");
+        Long unrelated = insertProduct("Whole " + tag, "Fresh organic chicken", "150.00", "IN_STOCK");
+        productCatalog.rebuild();
+
+        mockMvc.perform(get("/api/products/search").param("q", tag + " wing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(inName))
+                .andExpect(jsonPath("$.items[1].id").value(inDescription))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.truncated").value(false));
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/products/search").param("q", tag).param("size", "1");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            var page = objectMapper.readTree(response);
+            page.get("items").forEach(item -> paged.add(item.get("id").asLong()));
+            assertTrue(page.get("truncated").asBoolean());
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        // Three matches but only two are ranked: the whole-name matches win over the description match
+        assertEquals(Set.of(inName, unrelated), Set.copyOf(paged));
+        assertEquals(2, paged.size());
+
+        mockMvc.perform(get("/api/products/search").param("q", tag + " -wing"))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(unrelated));
+    }
+
+    @Test
+    void searchProducts_shouldUseTheChosenDictionary() throws Exception {
+        String tag = "zq" + UUID.randomUUID().toString().replace("-", "");
+        Long norwegian = insertProduct("Ferske kyllinger " + tag, "Fra gården", "120.00", "IN_STOCK");
+        productCatalog.rebuild();
+
+        mockMvc.perform(get("/api/products/search").param("q", "kyllingen " + tag).param("lang", "no"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(norwegian));
+        mockMvc.perform(get("/api/products/search").param("q", "kyllingen " + tag).param("lang", "en"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        mockMvc.perform(get("/api/products/search").param("q", tag).param("lang", "sv"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/search").param("q", tag).param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void autocomplete_shouldFollowProductChanges() throws Exception {
+        String tag = "ac" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        String response = mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ProductRequest(
+                                "Smoked " + tag + " Thighs", "Oak smoked", BigDecimal.valueOf(70), ProductStatus.IN_STOCK, 3))))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long smoked = objectMapper.readTree(response).get("id").asLong();
+        Long plain = insertProduct(tag + " Thighs", "Plain", "60.00", "IN_STOCK");
+        productCatalog.rebuild();
+
+        mockMvc.perform(get("/api/products/autocomplete").param("q", tag.substring(0, 8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(plain))
+                .andExpect(jsonPath("$[1].id").value(smoked))
+                .andExpect(jsonPath("$[1].name").value("Smoked " + tag + " Thighs"));
+
+        mockMvc.perform(put("/api/products/{id}", plain)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ProductUpdateRequest(null, null, null, ProductStatus.DISCONTINUED, null))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products/autocomplete").param("q", tag).param("limit", "1"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(smoked))
+                .andExpect(jsonPath("$[0].status").value("IN_STOCK"));
+    }
+
+    @Test
+    void listing_shouldFilterSortAndPageByKeysetWithSparseFields() throws Exception {
+        // A price band no other test uses keeps the listing to this test's rows
+        Long cheapest = insertProduct("Listing Eggs", "Long description", "7001.00", "IN_STOCK");
+        Long tiedFirst = insertProduct("Listing Wings", "Long description", "7002.00", "IN_STOCK");
+        Long tiedSecond = insertProduct("Listing Thighs", "Long description", "7002.00", "IN_STOCK");
+        Long dearest = insertProduct("Listing Breast", "Long description", "7003.00", "IN_STOCK");
+        insertProduct("Listing Liver", "Long description", "7002.50", "DISCONTINUED");
+        jdbcTemplate.update("UPDATE product SET stock_snapshot_quantity = 5 WHERE id IN (?, ?, ?)",
+                cheapest, tiedSecond, dearest);
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/products/listing")
+                    .param("status", "IN_STOCK")
+                    .param("minPrice", "7000")
+                    .param("maxPrice", "7003")
+                    .param("fields", "name,price")
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[0].name").exists())
+                    .andExpect(jsonPath("$.items[0].price").exists())
+                    .andExpect(jsonPath("$.items[0].description").doesNotExist())
+                    .andExpect(jsonPath("$.items[0].quantityOnHand").doesNotExist())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            var page = objectMapper.readTree(response);
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        assertEquals(List.of(cheapest, tiedFirst, tiedSecond, dearest), ids);
+
+        mockMvc.perform(get("/api/products/listing")
+                        .param("minPrice", "7000")
+                        .param("maxPrice", "7003")
+                        .param("inStock", "true")
+                        .param("sort", "name_desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].id").value(tiedSecond))
+                .andExpect(jsonPath("$.items[1].id").value(cheapest))
+                .andExpect(jsonPath("$.items[2].id").value(dearest))
+                .andExpect(jsonPath("$.items[2].description").value("Long description"))
+                .andExpect(jsonPath("$.items[2].quantityOnHand").value(5));
+
+        mockMvc.perform(get("/api/products/listing")
+                        .param("minPrice", "7000")
+                        .param("maxPrice", "7003")
+                        .param("sort", "price_desc")
+                        .param("fields", "status")
+                        .param("size", "1"))
+                .andExpect(jsonPath("$.items[0].id").value(dearest))
+                .andExpect(jsonPath("$.items[0].status").value("IN_STOCK"))
+                .andExpect(jsonPath("$.items[0].name").doesNotExist());
+    }
+
+    @Test
+    void listing_withUnknownFieldOrForeignOrForgedCursor_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/products/listing").param("fields", "name,secret"))
+                .andExpect(status().isBadRequest());
+
+        String nameCursor = objectMapper.readTree(mockMvc.perform(get("/api/products/listing")
+                                .param("sort", "name_asc")
+                                .param("size", "1"))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString())
+                .get("nextCursor")
+                .asText();
+        mockMvc.perform(get("/api/products/listing").param("sort", "price_asc").param("cursor", nameCursor))
+                .andExpect(status().isBadRequest());
+
+        String forgedPriceCursor = Base64.getUrlEncoder().encodeToString(
+                "PRICE_ASC|not-a-price|1".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(get("/api/products/listing").param("sort", "price_asc").param("cursor", forgedPriceCursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long insertProduct(String name, String description, String price, String status) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO product (name, description, price, status, stock_snapshot_quantity)
+                VALUES (?, ?, CAST(? AS NUMERIC), ?, 0)
+                RETURNING id
+                """, Long.class, name, description, price, status);
+    }
 }
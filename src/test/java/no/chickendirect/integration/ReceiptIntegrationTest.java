@@ -0,0 +1,269 @@
+package no.chickendirect.integration;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import no.chickendirect.address.dto.AddressRequest;
+import no.chickendirect.customer.dto.CustomerRequest;
+import no.chickendirect.order.dto.OrderBulkShipRequest;
+import no.chickendirect.order.dto.OrderLineRequest;
+import no.chickendirect.order.dto.OrderRequest;
+import no.chickendirect.order.dto.OrderUpdateRequest;
+import no.chickendirect.orderitem.dto.OrderItemRequest;
+import no.chickendirect.product.dto.ProductRequest;
+import no.chickendirect.productstatus.ProductStatus;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ReceiptIntegrationTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+        registry.add("receipts.export-concurrency", () -> 2);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Long customerId;
+    private Long addressId;
+    private Long productId;
+
+    @BeforeEach
+    void setupData() throws Exception {
+        String email = "receipt_" + UUID.randomUUID() + "@example.com";
+        customerId = postForId("/api/customers", new CustomerRequest("Receipt Customer", "11111111", email));
+        addressId = postForId("/api/customers/" + customerId + "/addresses",
+                new AddressRequest("Receipt Street", "Receipt City", "1234", "Country"));
+        productId = postForId("/api/products", new ProductRequest(
+                "Receipt Chicken", "Test product", BigDecimal.valueOf(100), ProductStatus.IN_STOCK, 1000));
+    }
+
+    @Test
+    void receipt_shouldBeServedGzippedWithStrongEtagAndRevalidated() throws Exception {
+        Long orderId = createOrder(false);
+
+        MvcResult first = mockMvc.perform(get("/orders/{id}/receipt", orderId)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.startsWith("\"") && !etag.startsWith("W/"), etag);
+        assertTrue(gunzip(first.getResponse().getContentAsByteArray()).contains("Receipt Chicken"));
+
+        mockMvc.perform(get("/orders/{id}/receipt", orderId)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void receipt_withoutGzipSupport_shouldBePlainHtmlWithItsOwnEtag() throws Exception {
+        Long orderId = createOrder(false);
+
+        String gzipEtag = mockMvc.perform(get("/orders/{id}/receipt", orderId)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult plain = mockMvc.perform(get("/orders/{id}/receipt", orderId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+
+        assertNotEquals(gzipEtag, plain.getResponse().getHeader(HttpHeaders.ETAG));
+        assertTrue(plain.getResponse().getContentAsString(StandardCharsets.UTF_8).contains("Receipt Chicken"));
+    }
+
+    @Test
+    void receipt_shouldChangeEtagWhenOrderOrItemsChange() throws Exception {
+        Long orderId = createOrder(false);
+        String initial = receiptEtag(orderId);
+
+        mockMvc.perform(put("/api/orders/{id}", orderId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new OrderUpdateRequest(BigDecimal.valueOf(700), null, false))))
+                .andExpect(status().isOk());
+        String afterUpdate = receiptEtag(orderId);
+        assertNotEquals(initial, afterUpdate);
+        assertTrue(receiptHtml(orderId).contains("kr 700"));
+
+        Long itemId = postForId("/api/order-items", new OrderItemRequest(productId, 3, orderId));
+        String afterItemAdded = receiptEtag(orderId);
+        assertNotEquals(afterUpdate, afterItemAdded);
+
+        mockMvc.perform(delete("/api/order-items/{id}", itemId))
+                .andExpect(status().isNoContent());
+        assertNotEquals(afterItemAdded, receiptEtag(orderId));
+    }
+
+    @Test
+    void receipt_forShippedOrder_shouldBeBrieflyReusableAndFollowBulkShipping() throws Exception {
+        Long orderId = createOrder(false);
+        String unshipped = receiptEtag(orderId);
+
+        mockMvc.perform(post("/api/orders/bulk-ship")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new OrderBulkShipRequest(List.of(orderId), null, true))))
+                .andExpect(status().isOk());
+
+        MvcResult shipped = mockMvc.perform(get("/orders/{id}/receipt", orderId)
+                        .header(HttpHeaders.IF_NONE_MATCH, unshipped))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, private"))
+                .andReturn();
+        assertNotEquals(unshipped, shipped.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void receipt_forUnknownOrder_shouldReturn404() throws Exception {
+        mockMvc.perform(get("/orders/{id}/receipt", 999_999L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportReceipts_shouldStreamEveryOrderInRangeAsZipInCreationOrder() throws Exception {
+        List<Long> orderIds = List.of(createOrder(false), createOrder(true), createOrder(false), createOrder(false));
+        LocalDate today = LocalDate.now();
+
+        MvcResult result = mockMvc.perform(get("/orders/receipts")
+                        .param("from", today.minusDays(1).toString())
+                        .param("to", today.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/zip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("attachment")))
+                .andReturn();
+
+        List<String> names = new ArrayList<>();
+        String lastReceipt = null;
+        try (ZipInputStream zip = new ZipInputStream(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                if (entry.getName().equals("receipt-" + orderIds.getLast() + ".html")) {
+                    lastReceipt = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        List<String> expected = orderIds.stream().map(id -> "receipt-" + id + ".html").toList();
+        assertEquals(expected, names.stream().filter(expected::contains).toList());
+        assertTrue(lastReceipt != null && lastReceipt.contains("Receipt Chicken"));
+    }
+
+    @Test
+    void exportReceipts_outsideRange_shouldBeEmptyAndInvertedRangeRejected() throws Exception {
+        createOrder(false);
+        LocalDate lastYear = LocalDate.now().minusYears(1);
+
+        MvcResult empty = mockMvc.perform(get("/orders/receipts")
+                        .param("from", lastYear.toString())
+                        .param("to", lastYear.plusDays(30).toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+        try (ZipInputStream zip = new ZipInputStream(
+                new ByteArrayInputStream(empty.getResponse().getContentAsByteArray()))) {
+            assertNull(zip.getNextEntry());
+        }
+
+        mockMvc.perform(get("/orders/receipts")
+                        .param("from", LocalDate.now().toString())
+                        .param("to", lastYear.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String receiptEtag(Long orderId) throws Exception {
+        return mockMvc.perform(get("/orders/{id}/receipt", orderId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String receiptHtml(Long orderId) throws Exception {
+        return mockMvc.perform(get("/orders/{id}/receipt", orderId))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private Long createOrder(boolean isShipped) throws Exception {
+        return postForId("/api/orders", new OrderRequest(
+                customerId,
+                addressId,
+                BigDecimal.valueOf(500),
+                BigDecimal.valueOf(50),
+                isShipped,
+                List.of(new OrderLineRequest(productId, 2))
+        ));
+    }
+
+    private Long postForId(String url, Object body) throws Exception {
+        String response = mockMvc.perform(post(url)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package no.chickendirect.integration;
+
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import jakarta.persistence.EntityManagerFactory;
+import no.chickendirect.address.AddressService;
+import no.chickendirect.address.dto.AddressRequest;
+import no.chickendirect.customer.Customer;
+import no.chickendirect.customer.CustomerRepository;
+import no.chickendirect.customer.CustomerService;
+import no.chickendirect.customer.dto.CustomerRequest;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class SecondLevelCacheIntegrationTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+    }
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    @SuppressWarnings("unused")
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void checkoutLookups_shouldBeServedFromCacheAfterFirstLoad() {
+        Long customerId = createCustomer("cache+" + UUID.randomUUID() + "@example.com");
+        Long addressId = transactionTemplate.execute(status -> addressService.addAddressToCustomer(
+                customerService.getCustomerEntity(customerId),
+                new AddressRequest("Bufferveien 1", "Oslo", "0150", "Norway")).id());
+        statistics.clear();
+
+        loadCheckoutEntities(customerId, addressId);
+        long statementsAfterFirstLoad = statistics.getPrepareStatementCount();
+        loadCheckoutEntities(customerId, addressId);
+
+        assertEquals(statementsAfterFirstLoad, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getDomainDataRegionStatistics("customer").getHitCount() >= 1);
+        assertTrue(statistics.getDomainDataRegionStatistics("address").getHitCount() >= 1);
+    }
+
+    @Test
+    void findByEmail_shouldResolveThroughNaturalIdCacheAndFollowUpdates() {
+        String email = "natural+" + UUID.randomUUID() + "@example.com";
+        Long customerId = createCustomer(email);
+        customerRepository.findByEmail(email);
+        statistics.clear();
+
+        long statementsBefore = statistics.getPrepareStatementCount();
+        assertEquals(customerId, customerRepository.findByEmail(email).map(Customer::getId).orElseThrow());
+        assertEquals(statementsBefore, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getNaturalIdStatistics(Customer.class.getName()).getCacheHitCount() >= 1);
+
+        String newEmail = "renamed+" + UUID.randomUUID() + "@example.com";
+        customerService.updateCustomer(customerId, new CustomerRequest("Renamed", "87654321", newEmail));
+
+        assertTrue(customerRepository.findByEmail(email).isEmpty());
+        Customer renamed = customerRepository.findByEmail(newEmail).orElseThrow();
+        assertEquals(customerId, renamed.getId());
+        assertEquals("Renamed", renamed.getName());
+    }
+
+    @Test
+    void deleteCustomer_shouldEvictCachedEntity() {
+        String email = "evict+" + UUID.randomUUID() + "@example.com";
+        Long customerId = createCustomer(email);
+        customerRepository.findById(customerId);
+
+        customerService.deleteCustomer(customerId);
+
+        assertTrue(customerRepository.findById(customerId).isEmpty());
+        assertTrue(customerRepository.findByEmail(email).isEmpty());
+    }
+
+    @Test
+    void cacheStatistics_shouldBeExposedAsMetrics() throws Exception {
+        Long customerId = createCustomer("metrics+" + UUID.randomUUID() + "@example.com");
+        customerRepository.findById(customerId);
+
+        mockMvc.perform(get("/actuator/metrics/hibernate.second.level.cache.requests")
+                        .param("tag", "region:customer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableTags[?(@.tag == 'result')]").exists());
+    }
+
+    private Long createCustomer(String email) {
+        return customerService.createCustomer(new CustomerRequest("Cache Test", "12345678", email)).id();
+    }
+
+    private void loadCheckoutEntities(Long customerId, Long addressId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            customerService.getCustomerEntity(customerId);
+            addressService.getAddressEntity(addressId);
+        });
+    }
+}
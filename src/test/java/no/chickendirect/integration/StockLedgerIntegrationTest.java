@@ -0,0 +1,220 @@
+package no.chickendirect.integration;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import no.chickendirect.exception.InsufficientStockException;
+import no.chickendirect.orderitem.OrderItemService;
+import no.chickendirect.orderitem.dto.OrderItemRequest;
+import no.chickendirect.product.ProductService;
+import no.chickendirect.product.StockLedgerCompactor;
+import no.chickendirect.product.dto.ProductRequest;
+import no.chickendirect.product.dto.ProductResponse;
+import no.chickendirect.product.dto.ProductUpdateRequest;
+import no.chickendirect.product.dto.ReorderThresholdRequest;
+import no.chickendirect.product.dto.RestockRequest;
+import no.chickendirect.productstatus.ProductStatus;
+
+@SpringBootTest
+@Testcontainers
+class StockLedgerIntegrationTest {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("chicken_direct")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    @SuppressWarnings("unused")
+    static void configureDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.enabled", () -> true);
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private StockLedgerCompactor stockLedgerCompactor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void stockChanges_shouldBeRecordedAsMovements() {
+        Long productId = createProduct(10);
+
+        productService.reserveStock(productId, 3);
+        ProductResponse updated = productService.updateProduct(
+                productId, new ProductUpdateRequest(null, null, null, null, 20));
+
+        assertEquals(20, updated.quantityOnHand());
+        assertEquals(List.of("RECEIPT:10", "RESERVATION:-3", "ADJUSTMENT:13"), movements(productId));
+        assertEquals(20, quantityOnHand(productId));
+        assertEquals(20, productService.getProduct(productId).quantityOnHand());
+    }
+
+    @Test
+    void reserveStock_beyondLedgerBalance_shouldRejectWithoutMovement() {
+        Long productId = createProduct(2);
+
+        assertThrows(InsufficientStockException.class, () -> productService.reserveStock(productId, 3));
+        productService.reserveStock(productId, 2);
+
+        assertEquals(List.of("RECEIPT:2", "RESERVATION:-2"), movements(productId));
+        assertEquals(0, quantityOnHand(productId));
+        assertEquals("OUT_OF_STOCK", status(productId));
+    }
+
+    @Test
+    void compact_shouldFoldMovementsIntoSnapshotAndKeepAuditTrail() {
+        Long productId = createProduct(10);
+        productService.reserveStock(productId, 4);
+
+        stockLedgerCompactor.compact();
+
+        assertEquals(6, jdbcTemplate.queryForObject(
+                "SELECT stock_snapshot_quantity FROM product WHERE id = ?", Integer.class, productId));
+        assertEquals(jdbcTemplate.queryForObject(
+                        "SELECT MAX(id) FROM stock_movement WHERE product_id = ?", Long.class, productId),
+                jdbcTemplate.queryForObject(
+                        "SELECT stock_snapshot_movement_id FROM product WHERE id = ?", Long.class, productId));
+        assertEquals(6, quantityOnHand(productId));
+        assertEquals(2, movements(productId).size());
+
+        productService.reserveStock(productId, 1);
+
+        assertEquals(5, quantityOnHand(productId));
+        assertEquals(6, jdbcTemplate.queryForObject(
+                "SELECT stock_snapshot_quantity FROM product WHERE id = ?", Integer.class, productId));
+    }
+
+    @Test
+    void compact_whileAProductIsLockedByABuyer_shouldStillRefreshItsCatalogStock() throws Exception {
+        Long productId = createProduct(10);
+        productService.reserveStock(productId, 4);
+        assertEquals(10, productService.getProduct(productId).quantityOnHand());
+
+        try (Connection buyer = dataSource.getConnection(); Statement statement = buyer.createStatement()) {
+            buyer.setAutoCommit(false);
+            statement.execute("SELECT pg_advisory_xact_lock(" + productId + ")");
+            stockLedgerCompactor.compact();
+            buyer.rollback();
+        }
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT stock_snapshot_movement_id FROM product WHERE id = ?", Long.class, productId));
+        assertEquals(6, productService.getProduct(productId).quantityOnHand());
+    }
+
+    @Test
+    void cancelledOrderLineAndRestock_shouldCreditTheLedger() {
+        Long productId = createProduct(3);
+        Long orderId = jdbcTemplate.queryForObject("""
+                INSERT INTO orders (total_price, shipping_charge, is_shipped,
+                                    shipping_street, shipping_city, shipping_postal_code, shipping_country,
+                                    customer_name, customer_email, customer_phone)
+                VALUES (100, 10, FALSE, 'Lagerveien 1', 'Oslo', '0150', 'Norway',
+                        'Ledger Test', 'ledger@example.com', '12345678')
+                RETURNING id
+                """, Long.class);
+        Long itemId = orderItemService.createOrderItem(new OrderItemRequest(productId, 3, orderId)).id();
+        assertEquals("OUT_OF_STOCK", status(productId));
+
+        orderItemService.deleteOrderItem(itemId);
+        assertEquals("IN_STOCK", status(productId));
+        productService.restock(productId, new RestockRequest(5));
+
+        assertEquals(List.of("RECEIPT:3", "RESERVATION:-3", "CANCELLATION:3", "RESTOCK:5"), movements(productId));
+        assertEquals(8, quantityOnHand(productId));
+    }
+
+    @Test
+    void deletingAProductRow_withMovements_shouldBeRejected() {
+        Long productId = createProduct(4);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update("DELETE FROM product WHERE id = ?", productId));
+
+        assertEquals(List.of("RECEIPT:4"), movements(productId));
+    }
+
+    @Test
+    void updatingALoadedProduct_shouldNotRevertAStatusChangedSinceItWasRead() {
+        Long productId = createProduct(4);
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            productService.getProductEntity(productId);
+            try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+                statement.executeUpdate("UPDATE product SET status = 'OUT_OF_STOCK' WHERE id = " + productId);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+
+            productService.updateReorderThreshold(productId, new ReorderThresholdRequest(2));
+            productService.updateProduct(productId, new ProductUpdateRequest(null, null, BigDecimal.valueOf(90), null, null));
+        });
+
+        assertEquals("OUT_OF_STOCK", status(productId));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT reorder_threshold FROM product WHERE id = ?", Integer.class, productId));
+        assertEquals(0, BigDecimal.valueOf(90).compareTo(jdbcTemplate.queryForObject(
+                "SELECT price FROM product WHERE id = ?", BigDecimal.class, productId)));
+    }
+
+    private Long createProduct(int quantity) {
+        return productService.createProduct(new ProductRequest(
+                "Ledger Chicken", "Audited", BigDecimal.valueOf(100), ProductStatus.IN_STOCK, quantity)).id();
+    }
+
+    private int quantityOnHand(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantity_on_hand FROM product_stock WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private String status(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM product WHERE id = ?", String.class, productId);
+    }
+
+    private List<String> movements(Long productId) {
+        return jdbcTemplate.queryForList("""
+                SELECT movement_type || ':' || quantity_delta
+                FROM stock_movement
+                WHERE product_id = ?
+                ORDER BY id
+                """, String.class, productId);
+    }
+}
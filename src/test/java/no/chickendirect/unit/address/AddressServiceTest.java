@@ -3,6 +3,7 @@ package no.chickendirect.unit.address;
 import no.chickendirect.address.*;
 import no.chickendirect.address.dto.AddressRequest;
 import no.chickendirect.address.dto.AddressResponse;
+import no.chickendirect.cache.InvalidationBus;
 import no.chickendirect.customer.Customer;
 import no.chickendirect.exception.AddressNotFoundException;
 import org.junit.jupiter.api.Test;
@@ -21,6 +22,8 @@ class AddressServiceTest {
 
     @Mock
     private AddressRepository addressRepository;
+    @Mock
+    private InvalidationBus invalidationBus;
 
     @InjectMocks
     private AddressService addressService;
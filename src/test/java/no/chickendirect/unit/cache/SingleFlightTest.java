@@ -0,0 +1,93 @@
+package no.chickendirect.unit.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.chickendirect.cache.SingleFlight;
+import no.chickendirect.exception.OrderNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+
+    @Test
+    void load_concurrentCallersForSameKey_shouldShareOneLoad() throws Exception {
+        int callers = 20;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.load("order", 1L, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "order-1";
+                })));
+            }
+            // Hold the leader until every follower has joined its flight
+            while (coalescedCount() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("order-1", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(callers - 1, coalescedCount());
+    }
+
+    @Test
+    void load_afterFlightCompletes_shouldLoadAgain() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.load("order", 1L, loads::incrementAndGet);
+        singleFlight.load("order", 1L, loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, coalescedCount());
+    }
+
+    @Test
+    void load_differentKeys_shouldNotShare() {
+        assertEquals("a", singleFlight.load("order", 1L, () -> "a"));
+        assertEquals("b", singleFlight.load("order", 2L, () -> "b"));
+        assertEquals("c", singleFlight.load("product", 1L, () -> "c"));
+    }
+
+    @Test
+    void load_failingLoader_shouldRethrowAndClearFlight() {
+        assertThrows(OrderNotFoundException.class, () -> singleFlight.load("order", 99L, () -> {
+            throw new OrderNotFoundException(99L);
+        }));
+
+        assertEquals("found", singleFlight.load("order", 99L, () -> "found"));
+    }
+
+    private double coalescedCount() {
+        var counter = meterRegistry.find("singleflight.coalesced").tag("name", "order").counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
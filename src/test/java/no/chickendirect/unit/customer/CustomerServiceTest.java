@@ -20,6 +20,8 @@ import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import no.chickendirect.address.Address;
+import no.chickendirect.cache.CacheTopic;
+import no.chickendirect.cache.InvalidationBus;
 import no.chickendirect.customer.Customer;
 import no.chickendirect.customer.CustomerRepository;
 import no.chickendirect.customer.CustomerService;
@@ -34,6 +36,8 @@ public class CustomerServiceTest {
 
     @Mock
     private CustomerRepository customerRepository;
+    @Mock
+    private InvalidationBus invalidationBus;
 
     @InjectMocks
     private CustomerService customerService;
@@ -127,6 +131,25 @@ public class CustomerServiceTest {
                 () -> customerService.getCustomer(99L));
         assertNotNull(exception);
     }
+
+    @Test
+    void updateCustomer_shouldPublishInvalidation() {
+        Customer customer = Customer.builder()
+                .id(1L)
+                .name("Old")
+                .phone("12345678")
+                .email("old@example.com")
+                .build();
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(customerRepository.save(customer)).thenReturn(customer);
+
+        CustomerResponse response = customerService.updateCustomer(
+                1L, new CustomerRequest("New", "87654321", "new@example.com"));
+
+        assertEquals("new@example.com", response.email());
+        verify(invalidationBus).publish(CacheTopic.CUSTOMER, 1L);
+    }
+
     @Test
     void deleteCustomer_notExisting_shouldThrow() {
         when(customerRepository.existsById(42L)).thenReturn(false);
@@ -0,0 +1,74 @@
+package no.chickendirect.unit.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import no.chickendirect.export.ExportFormat;
+import no.chickendirect.export.RowFormatException;
+import no.chickendirect.export.RowReader;
+import no.chickendirect.export.RowWriter;
+
+class ExportFormatTest {
+
+    @Test
+    void csv_shouldReadBackWhatItWrites() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowWriter writer = ExportFormat.CSV.open(out, List.of("name", "description", "price"));
+        writer.writeRow("Wings", "Hot, \"extra\"\nspicy", new BigDecimal("49.90"));
+        writer.writeRow("Thighs", "", null);
+        writer.flush();
+
+        try (RowReader reader = ExportFormat.CSV.openReader(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(Map.of("name", "Wings", "description", "Hot, \"extra\"\nspicy", "price", "49.90"),
+                    reader.readRow());
+            assertEquals(Map.of("name", "Thighs", "description", "", "price", ""), reader.readRow());
+            assertEquals(2, reader.rowNumber());
+            assertNull(reader.readRow());
+        }
+    }
+
+    @Test
+    void csv_rowWithWrongColumnCount_shouldFailOnlyThatRow() throws Exception {
+        String csv = "name,price\nWings\nThighs,30\n";
+
+        try (RowReader reader = open(ExportFormat.CSV, csv)) {
+            assertThrows(RowFormatException.class, reader::readRow);
+            assertEquals(Map.of("name", "Thighs", "price", "30"), reader.readRow());
+            assertEquals(2, reader.rowNumber());
+        }
+    }
+
+    @Test
+    void ndjson_shouldReadValuesAsTextAndSkipPastMalformedLines() throws Exception {
+        String ndjson = """
+                {"name":"Wings","price":49.90,"quantityOnHand":null}
+                {"name":
+                
+                {"name":"Thighs","price":"30"}
+                """;
+
+        try (RowReader reader = open(ExportFormat.NDJSON, ndjson)) {
+            Map<String, String> first = reader.readRow();
+            assertEquals("Wings", first.get("name"));
+            assertEquals("49.90", first.get("price"));
+            assertNull(first.get("quantityOnHand"));
+            assertThrows(RowFormatException.class, reader::readRow);
+            assertEquals(Map.of("name", "Thighs", "price", "30"), reader.readRow());
+            assertEquals(3, reader.rowNumber());
+            assertNull(reader.readRow());
+        }
+    }
+
+    private static RowReader open(ExportFormat format, String body) throws Exception {
+        return format.openReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
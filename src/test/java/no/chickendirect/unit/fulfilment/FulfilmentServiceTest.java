@@ -0,0 +1,65 @@
+package no.chickendirect.unit.fulfilment;
+
+import no.chickendirect.fulfilment.FulfilmentRepository;
+import no.chickendirect.fulfilment.FulfilmentService;
+import no.chickendirect.fulfilment.dto.ClaimedOrderResponse;
+import no.chickendirect.fulfilment.dto.FulfilmentClaimRequest;
+import no.chickendirect.fulfilment.dto.FulfilmentClaimResponse;
+import no.chickendirect.fulfilment.dto.FulfilmentCompletionRequest;
+import no.chickendirect.fulfilment.dto.FulfilmentCompletionResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FulfilmentServiceTest {
+
+    @Mock
+    private FulfilmentRepository fulfilmentRepository;
+
+    @InjectMocks
+    private FulfilmentService fulfilmentService;
+
+    @Test
+    void claimOrders_shouldApplyDefaultsAndReturnOldestFirst() {
+        LocalDateTime now = LocalDateTime.now();
+        ClaimedOrderResponse newer = new ClaimedOrderResponse(2L, now, "Oslo", "0150", null);
+        ClaimedOrderResponse older = new ClaimedOrderResponse(1L, now.minusHours(1), "Oslo", "0150", null);
+
+        when(fulfilmentRepository.claimBatch("worker-1", 20, 300)).thenReturn(List.of(newer, older));
+
+        FulfilmentClaimResponse response = fulfilmentService.claimOrders(new FulfilmentClaimRequest("worker-1", null, null));
+
+        assertEquals("worker-1", response.workerId());
+        assertEquals(List.of(1L, 2L), response.orders().stream().map(ClaimedOrderResponse::orderId).toList());
+    }
+
+    @Test
+    void completeOrders_shouldDeduplicateIdsAndReturnCompleted() {
+        when(fulfilmentRepository.completeClaimed("worker-1", Set.of(1L, 2L))).thenReturn(List.of(1L));
+
+        FulfilmentCompletionResponse response = fulfilmentService
+                .completeOrders(new FulfilmentCompletionRequest("worker-1", List.of(1L, 2L, 1L)));
+
+        assertEquals(List.of(1L), response.orderIds());
+    }
+
+    @Test
+    void releaseOrders_shouldDelegateToRepository() {
+        when(fulfilmentRepository.releaseClaimed("worker-1", Set.of(3L))).thenReturn(List.of(3L));
+
+        fulfilmentService.releaseOrders(new FulfilmentCompletionRequest("worker-1", List.of(3L)));
+
+        verify(fulfilmentRepository).releaseClaimed("worker-1", Set.of(3L));
+    }
+}
@@ -3,27 +3,54 @@ package no.chickendirect.unit.order;
 import no.chickendirect.order.*;
 import no.chickendirect.address.Address;
 import no.chickendirect.address.AddressService;
+import no.chickendirect.cache.SingleFlight;
 import no.chickendirect.customer.Customer;
 import no.chickendirect.customer.CustomerService;
 import no.chickendirect.exception.AddressNotFoundException;
 import no.chickendirect.exception.CustomerNotFoundException;
+import no.chickendirect.exception.InsufficientStockException;
+import no.chickendirect.exception.InvalidCursorException;
 import no.chickendirect.exception.OrderNotFoundException;
+import no.chickendirect.exception.ProductNotFoundException;
+import no.chickendirect.export.ExportFormat;
+import no.chickendirect.order.dto.OrderBulkShipRequest;
+import no.chickendirect.order.dto.OrderBulkShipResponse;
+import no.chickendirect.order.dto.OrderBulkShipResult;
+import no.chickendirect.order.dto.OrderExportLine;
+import no.chickendirect.order.dto.OrderLineRequest;
+import no.chickendirect.order.dto.OrderPageResponse;
 import no.chickendirect.order.dto.OrderRequest;
 import no.chickendirect.order.dto.OrderResponse;
+import no.chickendirect.order.dto.OrderSearchCriteria;
 import no.chickendirect.order.dto.OrderUpdateRequest;
+import no.chickendirect.orderitem.OrderItem;
+import no.chickendirect.product.Product;
+import no.chickendirect.product.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,9 +59,15 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
     @Mock
+    private OrderExportRepository orderExportRepository;
+    @Mock
     private CustomerService customerService;
     @Mock
     private AddressService addressService;
+    @Mock
+    private ProductService productService;
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
 
     @InjectMocks
     private OrderService orderService;
@@ -46,7 +79,8 @@ class OrderServiceTest {
                 2L,
                 BigDecimal.valueOf(100),
                 BigDecimal.valueOf(10),
-                false
+                false,
+                null
         );
 
         Customer customer = Customer.builder().id(1L).name("Bob").email("bob@example.com").phone("12345678").build();
@@ -92,9 +126,83 @@ class OrderServiceTest {
         assertEquals("City", response.shippingCity());
     }
 
+    @Test
+    void createOrder_withItems_shouldLoadProductsOnceAndCascadeLines() {
+        OrderRequest request = new OrderRequest(
+                1L,
+                2L,
+                BigDecimal.valueOf(100),
+                BigDecimal.valueOf(10),
+                false,
+                List.of(
+                        new OrderLineRequest(5L, 2),
+                        new OrderLineRequest(6L, 1),
+                        new OrderLineRequest(5L, 3)
+                )
+        );
+
+        Customer customer = Customer.builder().id(1L).name("Bob").email("bob@example.com").phone("12345678").build();
+        Address address = Address.builder().id(2L).street("Street").city("City").postalCode("1234").country("Norway").build();
+        Product wings = Product.builder().id(5L).name("Wings").price(BigDecimal.valueOf(50)).build();
+        Product thighs = Product.builder().id(6L).name("Thighs").price(BigDecimal.valueOf(80)).build();
+
+        when(customerService.getCustomerEntity(1L)).thenReturn(customer);
+        when(addressService.getAddressEntity(2L)).thenReturn(address);
+        when(productService.getProductEntities(Set.of(5L, 6L))).thenReturn(Map.of(5L, wings, 6L, thighs));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderResponse response = orderService.createOrder(request);
+
+        ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository).save(captor.capture());
+        List<OrderItem> items = captor.getValue().getItems();
+
+        assertEquals(3, items.size());
+        assertEquals(wings, items.get(0).getProduct());
+        assertEquals(thighs, items.get(1).getProduct());
+        assertEquals(3, items.get(2).getQuantity());
+        items.forEach(item -> assertSame(captor.getValue(), item.getOrder()));
+        verify(productService, times(1)).getProductEntities(any());
+        verify(productService).reserveStock(5L, 5);
+        verify(productService).reserveStock(6L, 1);
+        assertEquals(BigDecimal.valueOf(150), response.items().get(2).lineTotal());
+    }
+
+    @Test
+    void createOrder_withUnknownProduct_shouldThrowException() {
+        OrderRequest request = new OrderRequest(1L, 2L, BigDecimal.TEN, BigDecimal.ONE, false,
+                List.of(new OrderLineRequest(99L, 1)));
+        Customer customer = Customer.builder().id(1L).name("Bob").email("bob@example.com").phone("12345678").build();
+        Address address = Address.builder().id(2L).street("Street").city("City").postalCode("1234").country("Norway").build();
+
+        when(customerService.getCustomerEntity(1L)).thenReturn(customer);
+        when(addressService.getAddressEntity(2L)).thenReturn(address);
+        when(productService.getProductEntities(Set.of(99L))).thenThrow(new ProductNotFoundException(99L));
+
+        assertThrows(ProductNotFoundException.class, () -> orderService.createOrder(request));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void createOrder_withInsufficientStock_shouldThrowException() {
+        OrderRequest request = new OrderRequest(1L, 2L, BigDecimal.TEN, BigDecimal.ONE, false,
+                List.of(new OrderLineRequest(5L, 3)));
+        Customer customer = Customer.builder().id(1L).name("Bob").email("bob@example.com").phone("12345678").build();
+        Address address = Address.builder().id(2L).street("Street").city("City").postalCode("1234").country("Norway").build();
+        Product wings = Product.builder().id(5L).name("Wings").price(BigDecimal.valueOf(50)).build();
+
+        when(customerService.getCustomerEntity(1L)).thenReturn(customer);
+        when(addressService.getAddressEntity(2L)).thenReturn(address);
+        when(productService.getProductEntities(Set.of(5L))).thenReturn(Map.of(5L, wings));
+        doThrow(new InsufficientStockException(5L, 3)).when(productService).reserveStock(5L, 3);
+
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrder(request));
+        verify(orderRepository, never()).save(any());
+    }
+
     @Test
     void createOrder_customerNotFound_shouldThrowException() {
-        OrderRequest request = new OrderRequest(99L, 2L, BigDecimal.TEN, BigDecimal.ONE, false);
+        OrderRequest request = new OrderRequest(99L, 2L, BigDecimal.TEN, BigDecimal.ONE, false, null);
         when(customerService.getCustomerEntity(99L)).thenThrow(new CustomerNotFoundException(99L));
 
         assertThrows(CustomerNotFoundException.class, () -> orderService.createOrder(request));
@@ -102,7 +210,7 @@ class OrderServiceTest {
 
     @Test
     void createOrder_addressNotFound_shouldThrowException() {
-        OrderRequest request = new OrderRequest(1L, 99L, BigDecimal.TEN, BigDecimal.ONE, false);
+        OrderRequest request = new OrderRequest(1L, 99L, BigDecimal.TEN, BigDecimal.ONE, false, null);
         Customer customer = Customer.builder().id(1L).build();
 
         when(customerService.getCustomerEntity(1L)).thenReturn(customer);
@@ -127,29 +235,87 @@ class OrderServiceTest {
                 .creationDate(LocalDateTime.now())
                 .build();
 
-        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsByIdIn(List.of(10L))).thenReturn(List.of(order));
 
         OrderResponse response = orderService.getOrder(10L);
 
         assertEquals(10L, response.id());
     }
 
+    @Test
+    void getOrders_shouldReturnPageInKeysetOrderWithNextCursor() {
+        LocalDateTime now = LocalDateTime.now();
+        Order newest = Order.builder().id(3L).creationDate(now).totalPrice(BigDecimal.TEN).build();
+        Order older = Order.builder().id(2L).creationDate(now.minusDays(1)).totalPrice(BigDecimal.TEN).build();
+
+        when(orderRepository.findFirstPageIds(3)).thenReturn(List.of(3L, 2L, 1L));
+        when(orderRepository.findWithItemsByIdIn(List.of(3L, 2L))).thenReturn(List.of(older, newest));
+
+        OrderPageResponse page = orderService.getOrders(null, 2);
+
+        assertEquals(List.of(3L, 2L), page.items().stream().map(OrderResponse::id).toList());
+        assertEquals(new OrderCursor(older.getCreationDate(), 2L), OrderCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void getOrders_lastPage_shouldHaveNoNextCursor() {
+        LocalDateTime after = LocalDateTime.now();
+        Order order = Order.builder().id(1L).creationDate(after.minusDays(1)).build();
+        String cursor = new OrderCursor(after, 2L).encode();
+
+        when(orderRepository.findPageIdsAfter(after, 2L, 51)).thenReturn(List.of(1L));
+        when(orderRepository.findWithItemsByIdIn(List.of(1L))).thenReturn(List.of(order));
+
+        OrderPageResponse page = orderService.getOrders(cursor, 50);
+
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getOrders_invalidCursor_shouldThrowException() {
+        assertThrows(InvalidCursorException.class, () -> orderService.getOrders("garbage", 10));
+    }
+
     @Test
     void getOrder_notFound_shouldThrowException() {
-        when(orderRepository.findById(99L)).thenReturn(Optional.empty());
+        when(orderRepository.findWithItemsByIdIn(List.of(99L))).thenReturn(List.of());
         assertThrows(OrderNotFoundException.class, () -> orderService.getOrder(99L));
     }
 
     @Test
-    void deleteOrder_shouldDeleteIfFound() {
-        when(orderRepository.existsById(10L)).thenReturn(true);
+    void deleteOrder_unshipped_shouldReleaseStockPerProductAndDelete() {
+        Product wings = Product.builder().id(1L).build();
+        Product thighs = Product.builder().id(2L).build();
+        Order order = Order.builder().id(10L).isShipped(false).build();
+        order.addOrderItem(OrderItem.builder().product(thighs).quantity(4).build());
+        order.addOrderItem(OrderItem.builder().product(wings).quantity(2).build());
+        order.addOrderItem(OrderItem.builder().product(thighs).quantity(1).build());
+        when(orderRepository.findForItemChangeById(10L)).thenReturn(Optional.of(order));
+
+        orderService.deleteOrder(10L);
+
+        var inOrder = inOrder(productService, orderRepository);
+        inOrder.verify(productService).releaseStock(1L, 2);
+        inOrder.verify(productService).releaseStock(2L, 5);
+        inOrder.verify(orderRepository).delete(order);
+    }
+
+    @Test
+    void deleteOrder_shipped_shouldNotReleaseStock() {
+        Order order = Order.builder().id(10L).isShipped(true).build();
+        order.addOrderItem(OrderItem.builder().product(Product.builder().id(1L).build()).quantity(2).build());
+        when(orderRepository.findForItemChangeById(10L)).thenReturn(Optional.of(order));
+
         orderService.deleteOrder(10L);
-        verify(orderRepository).deleteById(10L);
+
+        verify(productService, never()).releaseStock(any(), anyInt());
+        verify(orderRepository).delete(order);
     }
 
     @Test
     void deleteOrder_notFound_shouldThrowException() {
-        when(orderRepository.existsById(99L)).thenReturn(false);
+        when(orderRepository.findForItemChangeById(99L)).thenReturn(Optional.empty());
         assertThrows(OrderNotFoundException.class, () -> orderService.deleteOrder(99L));
     }
 
@@ -222,10 +388,68 @@ class OrderServiceTest {
         assertTrue(updatedOrder.getIsShipped());
     }
 
+    @Test
+    void bulkUpdateShippedStatus_byIds_shouldDeduplicateAndCountUpdated() {
+        OrderBulkShipRequest request = new OrderBulkShipRequest(List.of(1L, 2L, 1L), null, true);
+        when(orderRepository.updateShippedStatusByIds(Set.of(1L, 2L), true)).thenReturn(List.of(
+                new OrderBulkShipResult(1L, BulkShipOutcome.UPDATED),
+                new OrderBulkShipResult(2L, BulkShipOutcome.NOT_FOUND)
+        ));
+
+        OrderBulkShipResponse response = orderService.bulkUpdateShippedStatus(request);
+
+        assertEquals(1, response.updated());
+        assertEquals(2, response.results().size());
+        verify(orderRepository, never()).updateShippedStatusMatching(any(), anyBoolean());
+    }
+
+    @Test
+    void bulkUpdateShippedStatus_byFilter_shouldReportEveryReturnedIdAsUpdated() {
+        OrderSearchCriteria filter = new OrderSearchCriteria(false, null, null, 7L, null, null, null);
+        when(orderRepository.updateShippedStatusMatching(filter, true)).thenReturn(List.of(4L, 5L));
+
+        OrderBulkShipResponse response = orderService.bulkUpdateShippedStatus(new OrderBulkShipRequest(null, filter, true));
+
+        assertEquals(2, response.updated());
+        assertEquals(BulkShipOutcome.UPDATED, response.results().get(1).outcome());
+    }
+
     @Test
     void updateOrder_notFound_shouldThrowException() {
         OrderUpdateRequest request = new OrderUpdateRequest(null, null, true);
         when(orderRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThrows(OrderNotFoundException.class, () -> orderService.updateOrder(99L, request));
-    }}
\ No newline at end of file
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeExport_gzippedCsv_shouldWriteHeaderAndOneRowPerLine() throws Exception {
+        LocalDateTime created = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+        doAnswer(invocation -> {
+            Consumer<OrderExportLine> consumer = invocation.getArgument(0);
+            consumer.accept(new OrderExportLine(1L, created, 7L, "Kari", "kari@example.com", "Gate 1", "Oslo",
+                    "0150", "Norway", new BigDecimal("150.00"), new BigDecimal("50.00"), false,
+                    10L, 3L, "Wings, spicy", new BigDecimal("25.00"), 4));
+            consumer.accept(new OrderExportLine(2L, created, null, "Ola", "ola@example.com", "Gate 2", "Bergen",
+                    "5003", "Norway", new BigDecimal("0.00"), new BigDecimal("0.00"), true,
+                    null, null, null, null, null));
+            return null;
+        }).when(orderExportRepository).forEachExportLine(any(Consumer.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderService.writeExport(ExportFormat.CSV, true, out);
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("orderId,creationDate,customerId,"));
+        assertEquals("1,2025-01-02T03:04:05,7,Kari,kari@example.com,Gate 1,Oslo,0150,Norway,150.00,50.00,false,"
+                + "10,3,\"Wings, spicy\",25.00,4", lines[1]);
+        assertEquals("2,2025-01-02T03:04:05,,Ola,ola@example.com,Gate 2,Bergen,5003,Norway,0.00,0.00,true,,,,,",
+                lines[2]);
+    }
+}
@@ -15,11 +15,14 @@ import static org.mockito.ArgumentMatchers.any;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import no.chickendirect.exception.InsufficientStockException;
 import no.chickendirect.exception.OrderItemNotFoundException;
 import no.chickendirect.exception.OrderNotFoundException;
 import no.chickendirect.exception.ProductNotFoundException;
@@ -61,11 +64,13 @@ class OrderItemServiceTest {
         Order order = Order.builder().id(2L).build();
 
         when(productService.getProductEntity(1L)).thenReturn(product);
-        when(orderService.getOrderEntity(2L)).thenReturn(order);
+        when(orderService.getOrderEntityForItemChange(2L)).thenReturn(order);
 
         OrderItem savedItem = OrderItem.builder()
                 .id(10L)
                 .product(product)
+                .productName("Product")
+                .unitPrice(BigDecimal.TEN)
                 .order(order)
                 .quantity(5)
                 .build();
@@ -81,13 +86,29 @@ class OrderItemServiceTest {
         assertEquals(product, toSave.getProduct());
         assertEquals(order, toSave.getOrder());
         assertEquals(5, toSave.getQuantity());
+        assertEquals(BigDecimal.TEN, toSave.getUnitPrice());
+        assertEquals("Product", toSave.getProductName());
+        verify(productService).reserveStock(1L, 5);
 
         assertEquals(10L, response.id());
         assertEquals(5, response.quantity());
-        assertEquals(1L, response.product().id());
+        assertEquals(1L, response.productId());
         assertEquals(2L, response.orderId());
     }
 
+    @Test
+    void createOrderItem_insufficientStock_shouldThrowWithoutSaving() {
+        OrderItemRequest request = new OrderItemRequest(1L, 5, 2L);
+        Product product = Product.builder().id(1L).name("Product").price(BigDecimal.TEN).build();
+
+        when(productService.getProductEntity(1L)).thenReturn(product);
+        when(orderService.getOrderEntityForItemChange(2L)).thenReturn(Order.builder().id(2L).build());
+        doThrow(new InsufficientStockException(1L, 5)).when(productService).reserveStock(1L, 5);
+
+        assertThrows(InsufficientStockException.class, () -> orderItemService.createOrderItem(request));
+        verify(orderItemRepository, never()).save(any());
+    }
+
     @Test
     void createOrderItem_productNotFound_shouldThrowException() {
         OrderItemRequest request = new OrderItemRequest(99L, 5, 2L);
@@ -102,7 +123,7 @@ class OrderItemServiceTest {
         Product product = Product.builder().id(1L).build();
 
         when(productService.getProductEntity(1L)).thenReturn(product);
-        when(orderService.getOrderEntity(99L)).thenThrow(new OrderNotFoundException(99L));
+        when(orderService.getOrderEntityForItemChange(99L)).thenThrow(new OrderNotFoundException(99L));
 
         assertThrows(OrderNotFoundException.class, () -> orderItemService.createOrderItem(request));
     }
@@ -120,6 +141,8 @@ class OrderItemServiceTest {
         OrderItem item = OrderItem.builder()
                 .id(10L)
                 .product(product)
+                .productName("Old Product Name")
+                .unitPrice(BigDecimal.valueOf(8))
                 .order(order)
                 .quantity(5)
                 .build();
@@ -129,6 +152,9 @@ class OrderItemServiceTest {
         OrderItemResponse response = orderItemService.getOrderItem(10L);
 
         assertEquals(10L, response.id());
+        assertEquals("Old Product Name", response.productName());
+        assertEquals(BigDecimal.valueOf(8), response.unitPrice());
+        assertEquals(BigDecimal.valueOf(40), response.lineTotal());
     }
 
     @Test
@@ -138,15 +164,34 @@ class OrderItemServiceTest {
     }
 
     @Test
-    void deleteOrderItem_shouldDeleteIfFound() {
-        when(orderItemRepository.existsById(10L)).thenReturn(true);
+    void deleteOrderItem_shouldReleaseStockDeleteAndBumpOrderVersion() {
+        OrderItem orderItem = OrderItem.builder().id(10L).quantity(3).product(Product.builder().id(1L).build()).build();
+        when(orderItemRepository.findOrderIdById(10L)).thenReturn(Optional.of(2L));
+        when(orderService.getOrderEntityForItemChange(2L)).thenReturn(Order.builder().id(2L).isShipped(false).build());
+        when(orderItemRepository.findById(10L)).thenReturn(Optional.of(orderItem));
+
         orderItemService.deleteOrderItem(10L);
-        verify(orderItemRepository).deleteById(10L);
+
+        verify(productService).releaseStock(1L, 3);
+        verify(orderItemRepository).delete(orderItem);
+    }
+
+    @Test
+    void deleteOrderItem_shippedOrder_shouldNotReleaseStock() {
+        OrderItem orderItem = OrderItem.builder().id(10L).quantity(3).product(Product.builder().id(1L).build()).build();
+        when(orderItemRepository.findOrderIdById(10L)).thenReturn(Optional.of(2L));
+        when(orderService.getOrderEntityForItemChange(2L)).thenReturn(Order.builder().id(2L).isShipped(true).build());
+        when(orderItemRepository.findById(10L)).thenReturn(Optional.of(orderItem));
+
+        orderItemService.deleteOrderItem(10L);
+
+        verify(productService, never()).releaseStock(any(), any(Integer.class));
+        verify(orderItemRepository).delete(orderItem);
     }
 
     @Test
     void deleteOrderItem_notFound_shouldThrowException() {
-        when(orderItemRepository.existsById(99L)).thenReturn(false);
+        when(orderItemRepository.findOrderIdById(99L)).thenReturn(Optional.empty());
         assertThrows(OrderItemNotFoundException.class, () -> orderItemService.deleteOrderItem(99L));
     }
 }
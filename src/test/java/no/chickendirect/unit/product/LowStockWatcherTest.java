@@ -0,0 +1,99 @@
+package no.chickendirect.unit.product;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.chickendirect.product.LowStockEvent;
+import no.chickendirect.product.LowStockProperties;
+import no.chickendirect.product.LowStockRepository;
+import no.chickendirect.product.LowStockWatcher;
+import no.chickendirect.product.dto.LowStockProduct;
+import no.chickendirect.product.dto.LowStockReport;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockWatcherTest {
+
+    private static final Duration LOOK_BACK = Duration.ofMinutes(5);
+
+    @Mock
+    private LowStockRepository lowStockRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LowStockWatcher lowStockWatcher;
+
+    @BeforeEach
+    void setUp() {
+        lowStockWatcher = new LowStockWatcher(
+                lowStockRepository, eventPublisher, meterRegistry, new LowStockProperties(LOOK_BACK));
+    }
+
+    @Test
+    void scan_asTheLockHolder_shouldPublishOneBatchOfNewlyLowProducts() {
+        LowStockProduct wings = new LowStockProduct(1L, "Chicken Wings", 2, 5);
+        LowStockProduct eggs = new LowStockProduct(2L, "Free Range Eggs", 0, 10);
+        LowStockProduct liver = new LowStockProduct(3L, "Chicken Liver", 1, 3);
+        Instant first = Instant.parse("2026-10-18T10:00:00Z");
+        Instant second = Instant.parse("2026-10-18T10:01:00Z");
+        when(lowStockRepository.scan(LOOK_BACK))
+                .thenReturn(Optional.of(new LowStockRepository.Scan(first, List.of(wings, eggs), List.of(wings, eggs))))
+                .thenReturn(Optional.of(new LowStockRepository.Scan(second, List.of(wings, eggs, liver), List.of(liver))));
+
+        lowStockWatcher.scan();
+        lowStockWatcher.scan();
+
+        verify(eventPublisher).publishEvent(new LowStockEvent(List.of(wings, eggs)));
+        verify(eventPublisher).publishEvent(new LowStockEvent(List.of(liver)));
+        assertEquals(new LowStockReport(second, List.of(wings, eggs, liver)), lowStockWatcher.getReport());
+        assertEquals(3.0, meterRegistry.get("inventory.low_stock.alerts").counter().count());
+        assertEquals(3.0, meterRegistry.get("inventory.low_stock.products").gauge().value());
+        assertEquals(2, meterRegistry.get("inventory.low_stock.scan").timer().count());
+    }
+
+    @Test
+    void scan_whileAnotherNodeHoldsTheLock_shouldServeItsReportWithoutAlerting() {
+        LowStockReport persisted = new LowStockReport(
+                Instant.parse("2026-10-18T10:00:00Z"), List.of(new LowStockProduct(1L, "Chicken Wings", 2, 5)));
+        when(lowStockRepository.scan(LOOK_BACK)).thenReturn(Optional.empty());
+        when(lowStockRepository.findReport()).thenReturn(persisted);
+
+        lowStockWatcher.scan();
+
+        assertSame(persisted, lowStockWatcher.getReport());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        assertEquals(0.0, meterRegistry.get("inventory.low_stock.alerts").counter().count());
+        assertEquals(1.0, meterRegistry.get("inventory.low_stock.products").gauge().value());
+    }
+
+    @Test
+    void scan_withNothingNewlyLow_shouldNotPublish() {
+        LowStockProduct wings = new LowStockProduct(1L, "Chicken Wings", 2, 5);
+        when(lowStockRepository.scan(LOOK_BACK)).thenReturn(Optional.of(
+                new LowStockRepository.Scan(Instant.now(), List.of(wings), List.of())));
+
+        lowStockWatcher.scan();
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        assertEquals(List.of(wings), lowStockWatcher.getReport().products());
+        verify(lowStockRepository, never()).findReport();
+    }
+}
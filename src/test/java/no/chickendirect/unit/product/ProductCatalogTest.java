@@ -0,0 +1,219 @@
+package no.chickendirect.unit.product;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import no.chickendirect.cache.CacheInvalidatedEvent;
+import no.chickendirect.cache.CacheTopic;
+import no.chickendirect.product.Product;
+import no.chickendirect.product.ProductCatalog;
+import no.chickendirect.product.ProductCatalogProperties;
+import no.chickendirect.product.ProductRepository;
+import no.chickendirect.product.dto.ProductResponse;
+import no.chickendirect.productstatus.ProductStatus;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductCatalog productCatalog;
+
+    @BeforeEach
+    void setUp() {
+        productCatalog = new ProductCatalog(productRepository, new ProductCatalogProperties(3), transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productCatalog.stop();
+    }
+
+    @Test
+    void suggest_shouldRankInStockFirstThenWholeNameMatchesAndSkipDiscontinued() {
+        when(productRepository.findAllByDeletedAtIsNull(any(Sort.class))).thenReturn(List.of(
+                product(1L, "Chicken Breast Fillet", ProductStatus.OUT_OF_STOCK),
+                product(2L, "Spicy Chicken Wings", ProductStatus.IN_STOCK),
+                product(3L, "Chicken Wings (1kg)", ProductStatus.IN_STOCK),
+                product(4L, "Chicken Liver", ProductStatus.DISCONTINUED),
+                product(5L, "Free Range Eggs", ProductStatus.IN_STOCK)
+        ));
+        productCatalog.rebuild();
+
+        assertEquals(List.of(3L, 2L, 1L), ids(productCatalog.suggest("chi", 10)));
+        assertEquals(List.of(3L, 2L), ids(productCatalog.suggest("  CHICKEN-wi", 10)));
+        assertEquals(List.of(3L), ids(productCatalog.suggest("wings 1", 10)));
+        assertEquals(List.of(3L, 2L), ids(productCatalog.suggest("c", 2)));
+        assertTrue(productCatalog.suggest("duck", 10).isEmpty());
+        assertTrue(productCatalog.suggest(" - ", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_shouldListAProductOnceWhenSeveralWordsMatch() {
+        when(productRepository.findAllByDeletedAtIsNull(any(Sort.class))).thenReturn(List.of(
+                product(1L, "Wing Wing Wings", ProductStatus.IN_STOCK),
+                product(2L, "Party Wings", ProductStatus.IN_STOCK)
+        ));
+        productCatalog.rebuild();
+
+        assertEquals(List.of(1L, 2L), ids(productCatalog.suggest("wing", 10)));
+    }
+
+    @Test
+    void rebuild_shouldReplaceSuggestionsWithTheNewSnapshot() {
+        when(productRepository.findAllByDeletedAtIsNull(any(Sort.class)))
+                .thenReturn(List.of(product(1L, "Whole Chicken", ProductStatus.IN_STOCK)))
+                .thenReturn(List.of(
+                        product(1L, "Whole Chicken", ProductStatus.OUT_OF_STOCK),
+                        product(2L, "Whole Turkey", ProductStatus.IN_STOCK)));
+        productCatalog.rebuild();
+        assertEquals(List.of(1L), ids(productCatalog.suggest("whole", 5)));
+
+        productCatalog.rebuild();
+
+        assertEquals(List.of(2L, 1L), ids(productCatalog.suggest("whole", 5)));
+    }
+
+    @Test
+    void find_shouldResolveSparseIds() {
+        when(productRepository.findAllByDeletedAtIsNull(any(Sort.class))).thenReturn(List.of(
+                product(3L, "Whole Chicken", ProductStatus.IN_STOCK),
+                product(50_000_000L, "Whole Turkey", ProductStatus.IN_STOCK),
+                product(Long.MAX_VALUE - 1, "Whole Duck", ProductStatus.IN_STOCK)
+        ));
+        productCatalog.rebuild();
+
+        assertEquals("Whole Turkey", productCatalog.find(50_000_000L).name());
+        assertEquals("Whole Duck", productCatalog.find(Long.MAX_VALUE - 1).name());
+        assertNull(productCatalog.find(4L));
+        assertNull(productCatalog.find(1L));
+    }
+
+    @Test
+    void refresh_shouldApplyChangedAndDeletedProductsWithoutRebuilding() {
+        when(productRepository.findAllByDeletedAtIsNull(any(Sort.class))).thenReturn(List.of(
+                product(1L, "Whole Chicken", ProductStatus.IN_STOCK),
+                product(2L, "Whole Turkey", ProductStatus.IN_STOCK),
+                product(4L, "Chicken Liver", ProductStatus.IN_STOCK)
+        ));
+        productCatalog.rebuild();
+        when(productRepository.findAllByIdInAndDeletedAtIsNull(List.of(2L, 3L))).thenReturn(List.of(
+                product(2L, "Roast Turkey", ProductStatus.IN_STOCK),
+                product(3L, "Whole Duck", ProductStatus.IN_STOCK)));
+        when(productRepository.findAllByIdInAndDeletedAtIsNull(List.of(1L))).thenReturn(List.of());
+        long version = productCatalog.version();
+
+        productCatalog.refresh(List.of(2L, 3L));
+        productCatalog.refresh(List.of(1L));
+
+        assertEquals(version + 2, productCatalog.version());
+        assertNull(productCatalog.find(1L));
+        assertEquals("Roast Turkey", productCatalog.find(2L).name());
+        assertEquals(List.of(2L, 3L, 4L), ids(productCatalog.findAll()));
+        assertEquals(List.of(3L), ids(productCatalog.suggest("whole", 5)));
+        assertEquals(List.of(2L), ids(productCatalog.suggest("turkey", 5)));
+        verify(productRepository, times(1)).findAllByDeletedAtIsNull(any(Sort.class));
+    }
+
+    @Test
+    void suggest_shouldInterleaveChangedProductsWithTheSnapshotInRankOrder() {
+        when(productRepository.findAllByDeletedAtIsNull(any(Sort.class))).thenReturn(List.of(
+                product(1L, "Whole Chicken", ProductStatus.IN_STOCK),
+                product(2L, "Whole Turkey", ProductStatus.IN_STOCK),
+                product(3L, "Whole Goose", ProductStatus.OUT_OF_STOCK)
+        ));
+        productCatalog.rebuild();
+        when(productRepository.findAllByIdInAndDeletedAtIsNull(List.of(4L))).thenReturn(List.of(
+                product(4L, "Whole Duck", ProductStatus.IN_STOCK)));
+
+        productCatalog.refresh(List.of(4L));
+
+        assertEquals(List.of(1L, 4L, 2L, 3L), ids(productCatalog.suggest("whole", 5)));
+        assertEquals(List.of(1L, 4L), ids(productCatalog.suggest("whole", 2)));
+    }
+
+    @Test
+    void refresh_beyondMaxPendingChanges_shouldRebuildOnTheCatalogThread() {
+        List<String> rebuiltOn = new CopyOnWriteArrayList<>();
+        when(productRepository.findAllByDeletedAtIsNull(any(Sort.class))).thenAnswer(invocation -> {
+            rebuiltOn.add(Thread.currentThread().getName());
+            return List.of(product(1L, "Whole Chicken", ProductStatus.IN_STOCK));
+        });
+        productCatalog.rebuild();
+        long version = productCatalog.version();
+
+        productCatalog.refresh(List.of(1L, 2L, 3L, 4L));
+
+        awaitTrue(() -> productCatalog.version() > version);
+        assertEquals(2, rebuiltOn.size());
+        assertEquals("product-catalog", rebuiltOn.getLast());
+        verify(productRepository, never()).findAllByIdInAndDeletedAtIsNull(any());
+    }
+
+    @Test
+    void onInvalidation_shouldLoadTheProductOnTheCatalogThread() {
+        List<String> loadedOn = new CopyOnWriteArrayList<>();
+        when(productRepository.findAllByIdInAndDeletedAtIsNull(List.of(7L))).thenAnswer(invocation -> {
+            loadedOn.add(Thread.currentThread().getName());
+            return List.of(product(7L, "Whole Duck", ProductStatus.IN_STOCK));
+        });
+
+        productCatalog.onInvalidation(new CacheInvalidatedEvent(CacheTopic.PRODUCT, 7L));
+        productCatalog.onInvalidation(new CacheInvalidatedEvent(CacheTopic.CUSTOMER, null));
+
+        awaitTrue(() -> productCatalog.find(7L) != null);
+        assertEquals(List.of("product-catalog"), loadedOn);
+        verify(productRepository, never()).findAllByDeletedAtIsNull(any(Sort.class));
+    }
+
+    private static Product product(Long id, String name, ProductStatus status) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .description(name)
+                .price(BigDecimal.TEN)
+                .status(status)
+                .quantityOnHand(status == ProductStatus.IN_STOCK ? 5 : 0)
+                .build();
+    }
+
+    private static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::id).toList();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -1,33 +1,84 @@
 package no.chickendirect.unit.product;
 
 import no.chickendirect.product.*;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import no.chickendirect.cache.CacheTopic;
+import no.chickendirect.cache.InvalidationBus;
+import no.chickendirect.exception.InsufficientStockException;
+import no.chickendirect.exception.InvalidCursorException;
 import no.chickendirect.exception.ProductNotFoundException;
+import no.chickendirect.export.ExportFormat;
+import no.chickendirect.product.dto.ProductBulkUpdateRequest;
+import no.chickendirect.product.dto.ProductBulkUpdateResponse;
+import no.chickendirect.product.dto.ProductFilter;
+import no.chickendirect.product.dto.ProductImportReject;
+import no.chickendirect.product.dto.ProductImportResponse;
+import no.chickendirect.product.dto.ProductListCriteria;
+import no.chickendirect.product.dto.ProductListItem;
+import no.chickendirect.product.dto.ProductListResponse;
+import no.chickendirect.product.dto.ProductPageResponse;
 import no.chickendirect.product.dto.ProductRequest;
 import no.chickendirect.product.dto.ProductResponse;
+import no.chickendirect.product.dto.ProductSuggestionResponse;
 import no.chickendirect.product.dto.ProductUpdateRequest;
+import no.chickendirect.product.dto.ReorderThresholdRequest;
+import no.chickendirect.product.dto.RestockRequest;
 import no.chickendirect.productstatus.ProductStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 
 @ExtendWith(MockitoExtension.class)
 class ProductServiceTest {
 
     @Mock
     private ProductRepository productRepository;
+    @Mock
+    private StockLedgerRepository stockLedgerRepository;
+    @Mock
+    private HotInventory hotInventory;
+    @Mock
+    private ProductCatalog productCatalog;
+    @Mock
+    private InvalidationBus invalidationBus;
+    @Mock
+    private ProductImportRepository productImportRepository;
+    @Mock
+    private ProductSearchRepository productSearchRepository;
+    @Mock
+    private ProductListRepository productListRepository;
+    @Mock
+    private LowStockWatcher lowStockWatcher;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @InjectMocks
     private ProductService productService;
@@ -51,12 +102,14 @@ class ProductServiceTest {
                 .quantityOnHand(100)
                 .build();
 
-        when(productRepository.save(any(Product.class))).thenReturn(savedEntity);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(savedEntity);
 
         ProductResponse response = productService.createProduct(request);
 
         ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
-        verify(productRepository).save(captor.capture());
+        verify(productRepository).saveAndFlush(captor.capture());
+        verify(stockLedgerRepository).append(1L, StockMovementType.RECEIPT, 100);
+        verify(productCatalog).refresh(List.of(1L));
         Product toSave = captor.getValue();
 
         assertEquals("Chicken Wings", toSave.getName());
@@ -70,46 +123,263 @@ class ProductServiceTest {
     }
 
     @Test
-    void getProduct_shouldReturnResponse() {
-        Product product = Product.builder()
-                .id(1L)
-                .name("Chicken Wings")
-                .description("Spicy wings")
-                .price(BigDecimal.valueOf(50))
-                .status(ProductStatus.IN_STOCK)
-                .quantityOnHand(100)
-                .build();
+    void getProduct_shouldReturnResponseFromCatalog() {
+        ProductResponse product = new ProductResponse(
+                1L, "Chicken Wings", "Spicy wings", BigDecimal.valueOf(50), ProductStatus.IN_STOCK, 100);
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productCatalog.find(1L)).thenReturn(product);
 
         ProductResponse response = productService.getProduct(1L);
 
         assertEquals(1L, response.id());
         assertEquals("Chicken Wings", response.name());
+        verify(productRepository, never()).findByIdAndDeletedAtIsNull(any());
     }
 
     @Test
     void getProduct_notFound_shouldThrowException() {
-        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        when(productCatalog.find(99L)).thenReturn(null);
 
         assertThrows(ProductNotFoundException.class, () -> productService.getProduct(99L));
     }
 
     @Test
-    void deleteProduct_shouldDeleteIfFound() {
-        when(productRepository.existsById(1L)).thenReturn(true);
+    void getAllProducts_shouldReturnCatalogSnapshot() {
+        List<ProductResponse> products = List.of(new ProductResponse(
+                1L, "Chicken Wings", "Spicy wings", BigDecimal.valueOf(50), ProductStatus.IN_STOCK, 100));
+
+        when(productCatalog.findAll()).thenReturn(products);
+
+        assertEquals(products, productService.getAllProducts());
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void listProducts_withoutFields_shouldSelectAllFieldsAndReturnNextCursor() {
+        ProductListCriteria criteria = new ProductListCriteria(ProductStatus.IN_STOCK, null, BigDecimal.TEN, null);
+        ProductListItem first = new ProductListItem(1L, "Eggs", null, BigDecimal.ONE, null, null);
+        ProductListItem second = new ProductListItem(2L, "Wings", null, BigDecimal.TWO, null, null);
+        ProductListItem third = new ProductListItem(3L, "Thighs", null, BigDecimal.TWO, null, null);
+        when(productListRepository.findPage(criteria, ProductSort.PRICE_ASC, EnumSet.allOf(ProductField.class), null, 3))
+                .thenReturn(List.of(
+                        new ProductListRepository.Row(first, new ProductListCursor(ProductSort.PRICE_ASC, BigDecimal.ONE, 1L)),
+                        new ProductListRepository.Row(second, new ProductListCursor(ProductSort.PRICE_ASC, BigDecimal.TWO, 2L)),
+                        new ProductListRepository.Row(third, new ProductListCursor(ProductSort.PRICE_ASC, BigDecimal.TWO, 3L))));
+
+        ProductListResponse page = productService.listProducts(criteria, ProductSort.PRICE_ASC, null, null, 2);
+
+        assertEquals(List.of(first, second), page.items());
+        assertEquals(new ProductListCursor(ProductSort.PRICE_ASC, BigDecimal.TWO, 2L),
+                ProductListCursor.decode(page.nextCursor(), ProductSort.PRICE_ASC));
+    }
+
+    @Test
+    void listProducts_cursorFromAnotherSort_shouldThrowException() {
+        String cursor = new ProductListCursor(ProductSort.NAME_ASC, "Wings", 2L).encode();
+        ProductListCriteria criteria = new ProductListCriteria(null, null, null, null);
+
+        assertThrows(InvalidCursorException.class, () -> productService.listProducts(
+                criteria, ProductSort.PRICE_DESC, Set.of(ProductField.NAME), cursor, 20));
+        verify(productListRepository, never()).findPage(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void listProducts_withForgedPriceCursor_shouldThrowException() {
+        ProductListCriteria criteria = new ProductListCriteria(null, null, null, null);
+
+        for (String value : List.of("abc", "1e999999999", "0.001", "123456789012345678")) {
+            String cursor = Base64.getUrlEncoder().encodeToString(
+                    ("PRICE_ASC|" + value + "|1").getBytes(StandardCharsets.UTF_8));
+            assertThrows(InvalidCursorException.class, () -> productService.listProducts(
+                    criteria, ProductSort.PRICE_ASC, null, cursor, 20), value);
+        }
+        verify(productListRepository, never()).findPage(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void suggestProducts_shouldServeFromCatalogWithClampedLimit() {
+        ProductResponse wings = new ProductResponse(
+                5L, "Chicken Wings", "Spicy wings", BigDecimal.valueOf(50), ProductStatus.IN_STOCK, 100);
+        when(productCatalog.suggest("chi", 50)).thenReturn(List.of(wings));
+
+        List<ProductSuggestionResponse> suggestions = productService.suggestProducts("chi", 1_000);
+
+        assertEquals(List.of(new ProductSuggestionResponse(5L, "Chicken Wings", ProductStatus.IN_STOCK)), suggestions);
+        verify(productSearchRepository, never()).search(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void searchProducts_shouldHydrateRankedIdsFromCatalogWithNextCursor() {
+        ProductResponse wings = new ProductResponse(
+                5L, "Chicken Wings", "Spicy wings", BigDecimal.valueOf(50), ProductStatus.IN_STOCK, 100);
+        ProductResponse thighs = new ProductResponse(
+                2L, "Chicken Thighs", "With wings", BigDecimal.valueOf(40), ProductStatus.IN_STOCK, 10);
+        when(productSearchRepository.search(SearchLanguage.EN, "wings", null, 3)).thenReturn(new ProductSearchResult(
+                List.of(new ProductSearchCursor(0.6f, 5L),
+                        new ProductSearchCursor(0.2f, 2L),
+                        new ProductSearchCursor(0.2f, 9L)),
+                true));
+        when(productCatalog.find(5L)).thenReturn(wings);
+        when(productCatalog.find(2L)).thenReturn(thighs);
+
+        ProductPageResponse page = productService.searchProducts(" wings ", SearchLanguage.EN, null, 2);
+
+        assertEquals(List.of(wings, thighs), page.items());
+        assertEquals(new ProductSearchCursor(0.2f, 2L), ProductSearchCursor.decode(page.nextCursor()));
+        assertTrue(page.truncated());
+    }
+
+    @Test
+    void searchProducts_blankQuery_shouldReturnEmptyPage() {
+        ProductPageResponse page = productService.searchProducts("  ", SearchLanguage.NO, null, 20);
+
+        assertTrue(page.items().isEmpty());
+        verify(productSearchRepository, never()).search(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void reserveStock_shouldAppendReservation() {
+        when(stockLedgerRepository.lockAvailable(1L)).thenReturn(10);
+
+        productService.reserveStock(1L, 3);
+
+        verify(stockLedgerRepository).append(1L, StockMovementType.RESERVATION, -3);
+        verify(stockLedgerRepository, never()).markOutOfStockIfEmpty(any());
+    }
+
+    @Test
+    void reserveStock_lastUnits_shouldMarkOutOfStock() {
+        when(stockLedgerRepository.lockAvailable(1L)).thenReturn(3);
+        when(stockLedgerRepository.markOutOfStockIfEmpty(1L)).thenReturn(true);
+
+        productService.reserveStock(1L, 3);
+
+        verify(stockLedgerRepository).append(1L, StockMovementType.RESERVATION, -3);
+        verify(productCatalog).refresh(List.of(1L));
+        verify(invalidationBus).publish(CacheTopic.PRODUCT, 1L);
+    }
+
+    @Test
+    void reserveStock_hotProduct_shouldUseHotInventory() {
+        when(hotInventory.tryReserve(1L, 3)).thenReturn(true);
+
+        productService.reserveStock(1L, 3);
+
+        verify(stockLedgerRepository, never()).append(any(), any(), anyInt());
+    }
+
+    @Test
+    void reserveStock_hotProductDisabledMeanwhile_shouldFallBackToLedger() {
+        when(hotInventory.tryReserve(1L, 3)).thenReturn(false);
+        when(stockLedgerRepository.lockAvailable(1L)).thenReturn(10);
+
+        productService.reserveStock(1L, 3);
+
+        verify(stockLedgerRepository).append(1L, StockMovementType.RESERVATION, -3);
+    }
+
+    @Test
+    void releaseStock_lastUnitsBack_shouldMarkInStockAndInvalidate() {
+        when(stockLedgerRepository.markInStockIfAvailable(1L)).thenReturn(true);
+
+        productService.releaseStock(1L, 3);
+
+        verify(stockLedgerRepository).append(1L, StockMovementType.CANCELLATION, 3);
+        verify(invalidationBus).publish(CacheTopic.PRODUCT, 1L);
+    }
+
+    @Test
+    void restock_shouldAppendRestockMovement() {
+        when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(Product.builder().id(1L).build()));
+
+        productService.restock(1L, new RestockRequest(25));
+
+        verify(stockLedgerRepository).append(1L, StockMovementType.RESTOCK, 25);
+        verify(stockLedgerRepository).markInStockIfAvailable(1L);
+        verify(invalidationBus).publish(CacheTopic.PRODUCT, 1L);
+    }
+
+    @Test
+    void reserveStock_insufficientStock_shouldThrowException() {
+        when(stockLedgerRepository.lockAvailable(1L)).thenReturn(2);
+
+        assertThrows(InsufficientStockException.class, () -> productService.reserveStock(1L, 3));
+        verify(stockLedgerRepository, never()).append(any(), any(), anyInt());
+    }
+
+    @Test
+    void reserveStock_notFound_shouldThrowException() {
+        when(stockLedgerRepository.lockAvailable(99L)).thenReturn(null);
+
+        assertThrows(ProductNotFoundException.class, () -> productService.reserveStock(99L, 1));
+    }
+
+    @Test
+    void getProductEntities_shouldReturnProductsById() {
+        Product wings = Product.builder().id(1L).name("Wings").build();
+        Product thighs = Product.builder().id(2L).name("Thighs").build();
+        when(productRepository.findAllByIdInAndDeletedAtIsNull(Set.of(1L, 2L))).thenReturn(List.of(wings, thighs));
+
+        Map<Long, Product> products = productService.getProductEntities(Set.of(1L, 2L));
+
+        assertEquals(wings, products.get(1L));
+        assertEquals(thighs, products.get(2L));
+    }
+
+    @Test
+    void getProductEntities_missingProduct_shouldThrowException() {
+        Product wings = Product.builder().id(1L).name("Wings").build();
+        when(productRepository.findAllByIdInAndDeletedAtIsNull(List.of(1L, 99L))).thenReturn(List.of(wings));
+
+        ProductNotFoundException e = assertThrows(ProductNotFoundException.class,
+                () -> productService.getProductEntities(List.of(1L, 99L)));
+        assertEquals("Product with id=99 not found", e.getMessage());
+    }
+
+    @Test
+    void deleteProduct_shouldSoftDeleteIfFound() {
+        when(productRepository.softDeleteById(1L)).thenReturn(1);
 
         productService.deleteProduct(1L);
 
-        verify(productRepository).deleteById(1L);
+        verify(productRepository, never()).deleteById(any());
+        verify(productCatalog).refresh(List.of(1L));
     }
 
     @Test
-    void deleteProduct_notFound_shouldThrowException() {
-        when(productRepository.existsById(99L)).thenReturn(false);
+    void deleteProduct_notFoundOrAlreadyDeleted_shouldThrowException() {
+        when(productRepository.softDeleteById(99L)).thenReturn(0);
 
         assertThrows(ProductNotFoundException.class, () -> productService.deleteProduct(99L));
-        verify(productRepository, never()).deleteById(any());
+        verify(productCatalog, never()).refresh(any());
+    }
+
+    @Test
+    void bulkUpdateProducts_withPercentChange_shouldAdjustMatchingPricesAndInvalidateOnce() {
+        ProductFilter filter = new ProductFilter(ProductStatus.IN_STOCK, "Frozen", null, null);
+        ProductBulkUpdateRequest request = new ProductBulkUpdateRequest(filter, BigDecimal.valueOf(8), null, null);
+        when(productRepository.adjustPriceMatching(filter, BigDecimal.valueOf(8), null)).thenReturn(List.of(3L, 7L));
+
+        ProductBulkUpdateResponse response = productService.bulkUpdateProducts(request);
+
+        assertEquals(2, response.updated());
+        assertEquals(List.of(3L, 7L), response.productIds());
+        verify(productCatalog).refresh(List.of(3L, 7L));
+        verify(invalidationBus).publish(CacheTopic.PRODUCT, null);
+        verify(productRepository, never()).updateStatusMatching(any(), any());
+    }
+
+    @Test
+    void bulkUpdateProducts_withStatusAndNoMatches_shouldNotInvalidate() {
+        ProductFilter filter = new ProductFilter(null, "Live Chicken", null, null);
+        ProductBulkUpdateRequest request = new ProductBulkUpdateRequest(filter, null, null, ProductStatus.DISCONTINUED);
+        when(productRepository.updateStatusMatching(filter, ProductStatus.DISCONTINUED)).thenReturn(List.of());
+
+        ProductBulkUpdateResponse response = productService.bulkUpdateProducts(request);
+
+        assertEquals(0, response.updated());
+        verify(productCatalog, never()).refresh(any());
+        verify(invalidationBus, never()).publish(any(), any());
     }
 
     @Test
@@ -140,13 +410,17 @@ class ProductServiceTest {
                 20
         );
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(updatedProduct);
 
         ProductResponse response = productService.updateProduct(1L, request);
 
-        verify(productRepository).findById(1L);
-        verify(productRepository).save(existingProduct);
+        verify(productRepository).findByIdAndDeletedAtIsNull(1L);
+        verify(productRepository).saveAndFlush(existingProduct);
+        verify(stockLedgerRepository).adjustTo(1L, 20);
+        verify(entityManager).refresh(updatedProduct);
+        verify(invalidationBus).publish(CacheTopic.PRODUCT, 1L);
+        assertEquals(100, existingProduct.getQuantityOnHand());
         
         assertEquals(1L, response.id());
         assertEquals(BigDecimal.valueOf(45), response.price());
@@ -173,19 +447,47 @@ class ProductServiceTest {
                 null
         );
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(existingProduct);
+        when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(existingProduct);
 
         ProductResponse response = productService.updateProduct(1L, request);
 
-        verify(productRepository).findById(1L);
-        verify(productRepository).save(existingProduct);
+        verify(productRepository).findByIdAndDeletedAtIsNull(1L);
+        verify(productRepository).saveAndFlush(existingProduct);
+        verify(stockLedgerRepository, never()).adjustTo(any(), anyInt());
+        verify(entityManager, never()).refresh(any());
         
         assertEquals(BigDecimal.valueOf(45), existingProduct.getPrice());
         assertEquals(ProductStatus.IN_STOCK, existingProduct.getStatus());
         assertEquals(100, existingProduct.getQuantityOnHand());
     }
 
+    @Test
+    void updateReorderThreshold_shouldSaveThresholdWithoutRebuildingCatalog() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Chicken Wings")
+                .status(ProductStatus.IN_STOCK)
+                .build();
+        when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product));
+
+        productService.updateReorderThreshold(1L, new ReorderThresholdRequest(12));
+
+        ArgumentCaptor<Product> saved = ArgumentCaptor.forClass(Product.class);
+        verify(productRepository).save(saved.capture());
+        assertEquals(12, saved.getValue().getReorderThreshold());
+        verify(productCatalog, never()).refresh(any());
+    }
+
+    @Test
+    void updateReorderThreshold_notFound_shouldThrowException() {
+        when(productRepository.findByIdAndDeletedAtIsNull(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ProductNotFoundException.class,
+                () -> productService.updateReorderThreshold(99L, new ReorderThresholdRequest(5)));
+        verify(productRepository, never()).save(any());
+    }
+
     @Test
     void updateProduct_notFound_shouldThrowException() {
         ProductUpdateRequest request = new ProductUpdateRequest(
@@ -196,9 +498,38 @@ class ProductServiceTest {
                 20
         );
 
-        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        when(productRepository.findByIdAndDeletedAtIsNull(99L)).thenReturn(Optional.empty());
 
         assertThrows(ProductNotFoundException.class, () -> productService.updateProduct(99L, request));
         verify(productRepository, never()).save(any());
     }
+
+    @Test
+    void importProducts_shouldStageValidRowsAndReportRejects() throws Exception {
+        ProductImportRepository.Staging staging = mock(ProductImportRepository.Staging.class);
+        when(productImportRepository.openStaging()).thenReturn(staging);
+        when(staging.finish()).thenReturn(List.of(10L, 11L));
+        String csv = """
+                name,description,price,status,quantityOnHand
+                Wings,"Hot, spicy",49.90,IN_STOCK,10
+                ,No name,10,IN_STOCK,1
+                Thighs,Boneless,abc,IN_STOCK,1
+                Drumsticks,Classic,30,in_stock,
+                Feet,Odd,5,SOLD_OUT,1
+                """;
+
+        ProductImportResponse response = productService.importProducts(
+                ExportFormat.CSV, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, response.imported());
+        assertEquals(3, response.rejected());
+        assertEquals(List.of(2L, 3L, 5L), response.rejects().stream().map(ProductImportReject::row).toList());
+        assertEquals(List.of("name: must not be blank"), response.rejects().get(0).errors());
+        assertTrue(response.rejects().get(1).errors().getFirst().startsWith("price: invalid value 'abc'"));
+        verify(staging).add(1L, new ProductRequest("Wings", "Hot, spicy", new BigDecimal("49.90"), ProductStatus.IN_STOCK, 10));
+        verify(staging).add(4L, new ProductRequest("Drumsticks", "Classic", new BigDecimal("30"), ProductStatus.IN_STOCK, null));
+        verify(staging).close();
+        verify(productCatalog).refresh(List.of(10L, 11L));
+        verify(invalidationBus).publish(CacheTopic.PRODUCT, null);
+    }
 }